@@ -0,0 +1,68 @@
+package com.blog.cutom_blog.config.security_configuration;
+
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.io.Encoders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a request by its bearer token: a full HS256 signature check against a hit in the
+ * verified-token cache, which still hashes the token to look it up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtUtilsBenchmark {
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        jwtUtils = new JwtUtils();
+        setField("jwtSecret", Encoders.BASE64.encode(secret));
+        setField("jwtExpirationMs", (int) TimeUnit.HOURS.toMillis(1));
+        setField("cacheRegistry", new CacheRegistry());
+        jwtUtils.init();
+
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        UserDetailsImpl user = new UserDetailsImpl("5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f", "admin",
+            "admin@example.com", null, authorities, 0);
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, authorities));
+        // Warms the cache, so every parseClaims call below is a hit
+        jwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public String uncached() {
+        return jwtUtils.getUserNameFromJwtToken(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> cached() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(JwtUtils.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, jwtUtils, value);
+    }
+}
@@ -0,0 +1,95 @@
+package com.blog.cutom_blog.config.security_configuration;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deciding whether a request is public: the route trie against the list of Ant matchers the security rules used
+ * before it, each tried in turn. Requests are a mix of public reads, pages and authenticated writes, so some match
+ * early, some late and some never.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PublicRoutesBenchmark {
+    private static final String POST_ID = "5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f";
+
+    private HttpServletRequest[] requests;
+    private RequestMatcher trie;
+    private RequestMatcher antMatchers;
+
+    @Setup
+    public void setUp() {
+        requests = new HttpServletRequest[]{
+            new MockHttpServletRequest("GET", "/api/posts"),
+            new MockHttpServletRequest("GET", "/api/posts/" + POST_ID),
+            new MockHttpServletRequest("GET", "/api/posts/slug/hello-world"),
+            new MockHttpServletRequest("GET", "/api/posts/" + POST_ID + "/comments"),
+            new MockHttpServletRequest("POST", "/api/posts/" + POST_ID + "/comments"),
+            new MockHttpServletRequest("PUT", "/api/posts/" + POST_ID),
+            new MockHttpServletRequest("GET", "/api/dashboard/stats"),
+            new MockHttpServletRequest("GET", "/css/main.css"),
+            new MockHttpServletRequest("GET", "/uploads/2024/photo.jpg"),
+            new MockHttpServletRequest("GET", "/"),
+            new MockHttpServletRequest("GET", "/preview-post"),
+            new MockHttpServletRequest("GET", "/error")
+        };
+        trie = PublicRoutes.permitAllMatcher();
+        antMatchers = baselineMatchers();
+    }
+
+    @Benchmark
+    public int trie() {
+        return countMatches(trie);
+    }
+
+    @Benchmark
+    public int antMatchers() {
+        return countMatches(antMatchers);
+    }
+
+    private int countMatches(RequestMatcher matcher) {
+        int matches = 0;
+        for (HttpServletRequest request : requests) {
+            if (matcher.matches(request)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    // The permitAll rules of SecurityConfig before the route table, in their original order
+    @SuppressWarnings("deprecation")
+    private static RequestMatcher baselineMatchers() {
+        List<RequestMatcher> matchers = new ArrayList<>();
+        for (String pattern : List.of("/v1/registration", "/v1/registration/**", "/api/auth/**", "/api/subscribers/**",
+            "/api/password-reset/**")) {
+            matchers.add(new AntPathRequestMatcher(pattern));
+        }
+        for (String pattern : List.of("/api/posts", "/api/posts/*", "/api/posts/slug/**", "/api/posts/search",
+            "/api/posts/*/comments")) {
+            matchers.add(new AntPathRequestMatcher(pattern, HttpMethod.GET.name()));
+        }
+        for (String pattern : List.of("/css/**", "/js/**", "/assets/**", "/static/**", "/uploads/**", "/", "/login",
+            "/register", "/admin-signup", "/about", "/post", "/privacy", "/terms", "/dashboard", "/create-post",
+            "/preview-post", "/error")) {
+            matchers.add(new AntPathRequestMatcher(pattern));
+        }
+        return new OrRequestMatcher(matchers);
+    }
+}
@@ -0,0 +1,163 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.dtos.PostSearchResponse;
+import com.blog.cutom_blog.dtos.PostSummaryResponse;
+import com.blog.cutom_blog.events.PostChangedEvent;
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.repositories.PostRepository;
+import com.blog.cutom_blog.repositories.projections.PostSummaryView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Search latency of {@link InMemoryPostIndex} over a synthetic published corpus, before and after every post has
+ * been edited a few times, which is what compaction has to keep in check.
+ * <p>
+ * The repository and the services behind the index are stubs, so only scoring, ranking and the index bookkeeping
+ * are measured; assembling a page of hits in production adds one cached author lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InMemoryPostIndexBenchmark {
+    private static final int VOCABULARY_SIZE = 5_000;
+    private static final int WORDS_PER_POST = 150;
+
+    @Param({"10000", "100000"})
+    private int posts;
+
+    @Param({"0", "3"})
+    private int editsPerPost;
+
+    private InMemoryPostIndex index;
+    private String[] vocabulary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = "term" + Integer.toString(i, 36);
+        }
+
+        Map<String, Post> byId = new LinkedHashMap<>();
+        for (int i = 0; i < posts; i++) {
+            Post post = Post.builder()
+                .id("post-" + i)
+                .title(words(random, 6))
+                .content(words(random, WORDS_PER_POST))
+                .status(Post.PostStatus.PUBLISHED)
+                .authorId("author-" + (i % 50))
+                .publishedAt(LocalDateTime.now())
+                .slug("post-" + i)
+                .build();
+            byId.put(post.getId(), post);
+        }
+
+        CounterService counterService = new CounterService(null) {
+            @Override
+            public Map<String, Long> getCommentCounts(Collection<String> postIds) {
+                return new HashMap<>();
+            }
+        };
+        PostService postService = new PostService() {
+            @Override
+            public List<PostSummaryResponse> toPostSummaries(List<PostSummaryView> summaries,
+                                                             Map<String, Long> commentCounts) {
+                return summaries.stream()
+                    .map(summary -> PostSummaryResponse.builder()
+                        .id(summary.getId())
+                        .title(summary.getTitle())
+                        .commentCount(commentCounts.get(summary.getId()))
+                        .build())
+                    .collect(Collectors.toList());
+            }
+        };
+
+        index = new InMemoryPostIndex(repository(byId), postService, counterService);
+        index.build();
+        for (int edit = 0; edit < editsPerPost; edit++) {
+            for (Post post : byId.values()) {
+                index.onPostChanged(PostChangedEvent.updated(post, post.getSlug(), Post.PostStatus.PUBLISHED));
+            }
+        }
+    }
+
+    @Benchmark
+    public Page<PostSearchResponse> commonTerm() {
+        return index.search(vocabulary[0], 0, 10);
+    }
+
+    @Benchmark
+    public Page<PostSearchResponse> twoTerms() {
+        return index.search(vocabulary[1] + " " + vocabulary[40], 0, 10);
+    }
+
+    @Benchmark
+    public Page<PostSearchResponse> prefix() {
+        return index.search("term1", 0, 10);
+    }
+
+    // Skewed towards the start of the vocabulary, so early terms are common and late ones rare
+    private String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            text.append(vocabulary[(int) (skewed * VOCABULARY_SIZE)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static PostRepository repository(Map<String, Post> byId) {
+        NavigableMap<String, Post> ordered = new TreeMap<>(byId);
+        ProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        return (PostRepository) Proxy.newProxyInstance(PostRepository.class.getClassLoader(),
+            new Class<?>[]{PostRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "findByStatusAfter" -> ordered.tailMap((String) args[1], false).values().stream()
+                    .limit(((Pageable) args[2]).getPageSize())
+                    .collect(Collectors.toList());
+                case "findById" -> Optional.ofNullable(byId.get((String) args[0]));
+                case "findSummariesByIdIn" -> ((Collection<?>) args[0]).stream()
+                    .map(id -> byId.get((String) id))
+                    .map(post -> projections.createProjection(PostSummaryView.class, summaryOf(post)))
+                    .collect(Collectors.toList());
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private static Map<String, Object> summaryOf(Post post) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("id", post.getId());
+        summary.put("title", post.getTitle());
+        summary.put("slug", post.getSlug());
+        summary.put("status", post.getStatus());
+        summary.put("authorId", post.getAuthorId());
+        summary.put("publishedAt", post.getPublishedAt());
+        return summary;
+    }
+}
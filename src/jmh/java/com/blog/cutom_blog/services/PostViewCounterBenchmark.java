@@ -0,0 +1,77 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.events.PostChangedEvent;
+import com.blog.cutom_blog.models.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of recording views of a few hot posts from many threads at once.
+ * <p>
+ * {@code rowLocked} stands in for the per-request {@code UPDATE ... SET view_count = view_count + 1} the counter
+ * replaced: every writer of a post waits for that post's row lock. It leaves out the round trip and the commit, so
+ * it is a lower bound on what the UPDATE cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class PostViewCounterBenchmark {
+
+    @Param({"1", "16"})
+    private int hotPosts;
+
+    private String[] postIds;
+    private PostViewCounter counter;
+    private Map<String, RowLockedCount> rows;
+
+    @Setup
+    public void setUp() {
+        postIds = new String[hotPosts];
+        rows = new HashMap<>();
+        // Never flushed during the benchmark, so the repository is not needed
+        counter = new PostViewCounter(null);
+        for (int i = 0; i < hotPosts; i++) {
+            postIds[i] = UUID.randomUUID().toString();
+            rows.put(postIds[i], new RowLockedCount());
+            // Only published posts are counted
+            counter.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.CREATED, postIds[i], null,
+                "post-" + i, null, Post.PostStatus.PUBLISHED));
+        }
+    }
+
+    @Benchmark
+    public void longAdder() {
+        counter.recordView(nextPost());
+    }
+
+    @Benchmark
+    public void rowLocked() {
+        rows.get(nextPost()).increment();
+    }
+
+    private String nextPost() {
+        return postIds[ThreadLocalRandom.current().nextInt(postIds.length)];
+    }
+
+    private static final class RowLockedCount {
+        private long views;
+
+        synchronized void increment() {
+            views++;
+        }
+    }
+}
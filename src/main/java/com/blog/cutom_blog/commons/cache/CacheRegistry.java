@@ -0,0 +1,55 @@
+package com.blog.cutom_blog.commons.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Named in-process caches whose hit/miss/eviction statistics are reported on the admin dashboard.
+ * Caches must be built with {@code recordStats()} to report anything but their size.
+ */
+@Component
+public class CacheRegistry {
+    private final Map<String, Cache<?, ?>> caches = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> hitsAtMinuteStart = new ConcurrentHashMap<>();
+    private final Map<String, Long> hitsLastMinute = new ConcurrentHashMap<>();
+
+    public <K, V> Cache<K, V> register(String name, Cache<K, V> cache) {
+        caches.put(name, cache);
+        return cache;
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> {
+            CacheStats stats = cache.stats();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("size", cache.estimatedSize());
+            values.put("hits", stats.hitCount());
+            values.put("misses", stats.missCount());
+            values.put("hitRate", Math.round(stats.hitRate() * 10000.0) / 10000.0);
+            values.put("evictions", stats.evictionCount());
+            values.put("hitsLastMinute", hitsLastMinute.getOrDefault(name, 0L));
+            snapshot.put(name, values);
+        });
+        return snapshot;
+    }
+
+    /**
+     * Hits per cache over the last full minute, i.e. how many loads each cache saved in that minute.
+     */
+    @Scheduled(fixedRate = 60_000)
+    public void rollMinute() {
+        caches.forEach((name, cache) -> {
+            long hits = cache.stats().hitCount();
+            Long previous = hitsAtMinuteStart.put(name, hits);
+            hitsLastMinute.put(name, previous == null ? hits : hits - previous);
+        });
+    }
+}
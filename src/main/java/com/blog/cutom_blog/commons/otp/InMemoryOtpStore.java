@@ -0,0 +1,83 @@
+package com.blog.cutom_blog.commons.otp;
+
+import com.blog.cutom_blog.exceptions.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node store. Expired codes are swept on a schedule, and the number of pending codes is capped so
+ * abandoned registrations cannot grow the map without bound.
+ */
+@Component
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public InMemoryOtpStore(@Value("${app.otp.memory.max-entries:100000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public void put(String identifier, String otp, Instant expireAt) {
+        if (entries.size() >= maxEntries && !entries.containsKey(identifier)) {
+            removeExpired();
+            if (entries.size() >= maxEntries) {
+                throw new ServiceUnavailableException("OTP store is full",
+                    "Too many verification codes are pending. Please try again in a few minutes.");
+            }
+        }
+        entries.put(identifier, new Entry(otp, expireAt, 0));
+    }
+
+    @Override
+    public Verification verify(String identifier, String otp, int maxAttempts) {
+        Verification[] result = {Verification.NOT_FOUND};
+        // compute runs atomically per identifier, so a code is consumed once and attempts are never lost
+        entries.computeIfPresent(identifier, (key, entry) -> {
+            if (Instant.now().isAfter(entry.expireAt())) {
+                result[0] = Verification.EXPIRED;
+                return null;
+            }
+            if (entry.attempts() >= maxAttempts) {
+                result[0] = Verification.TOO_MANY_ATTEMPTS;
+                return entry;
+            }
+            if (matches(entry.otp(), otp)) {
+                result[0] = Verification.VALID;
+                return null;
+            }
+            result[0] = entry.attempts() + 1 >= maxAttempts ? Verification.TOO_MANY_ATTEMPTS : Verification.INVALID;
+            return new Entry(entry.otp(), entry.expireAt(), entry.attempts() + 1);
+        });
+        return result[0];
+    }
+
+    @Override
+    public int removeExpired() {
+        Instant now = Instant.now();
+        int before = entries.size();
+        entries.values().removeIf(entry -> now.isAfter(entry.expireAt()));
+        return Math.max(before - entries.size(), 0);
+    }
+
+    @Override
+    public long size() {
+        return entries.size();
+    }
+
+    private static boolean matches(String expected, String actual) {
+        return actual != null && MessageDigest.isEqual(
+            expected.getBytes(StandardCharsets.UTF_8), actual.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Entry(String otp, Instant expireAt, int attempts) {
+    }
+}
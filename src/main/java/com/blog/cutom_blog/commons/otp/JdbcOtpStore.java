@@ -0,0 +1,74 @@
+package com.blog.cutom_blog.commons.otp;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Store shared by every replica, backed by the {@code otp_codes} table. Each operation is a single statement, so
+ * concurrent checks of the same identifier are serialized by its row lock.
+ */
+@Component
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "jdbc")
+public class JdbcOtpStore implements OtpStore {
+
+    private static final String PUT =
+        "INSERT INTO otp_codes (identifier, otp, attempts, expires_at) VALUES (?, ?, 0, ?) " +
+        "ON CONFLICT (identifier) DO UPDATE SET otp = EXCLUDED.otp, attempts = 0, expires_at = EXCLUDED.expires_at";
+
+    // Succeeds for exactly one caller, whoever wins the row lock
+    private static final String CONSUME =
+        "DELETE FROM otp_codes WHERE identifier = ? AND otp = ? AND attempts < ? AND expires_at > now() " +
+        "RETURNING identifier";
+
+    private static final String RECORD_FAILURE =
+        "UPDATE otp_codes SET attempts = attempts + 1 WHERE identifier = ? " +
+        "RETURNING attempts, expires_at <= now() AS expired";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcOtpStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void put(String identifier, String otp, Instant expireAt) {
+        jdbcTemplate.update(PUT, identifier, otp, Timestamp.from(expireAt));
+    }
+
+    @Override
+    public Verification verify(String identifier, String otp, int maxAttempts) {
+        if (!jdbcTemplate.queryForList(CONSUME, String.class, identifier, otp, maxAttempts).isEmpty()) {
+            return Verification.VALID;
+        }
+
+        List<Verification> failure = jdbcTemplate.query(RECORD_FAILURE, (resultSet, rowNum) -> {
+            if (resultSet.getBoolean("expired")) {
+                return Verification.EXPIRED;
+            }
+            return resultSet.getInt("attempts") >= maxAttempts ? Verification.TOO_MANY_ATTEMPTS : Verification.INVALID;
+        }, identifier);
+        if (failure.isEmpty()) {
+            return Verification.NOT_FOUND;
+        }
+        if (failure.get(0) == Verification.EXPIRED) {
+            jdbcTemplate.update("DELETE FROM otp_codes WHERE identifier = ? AND expires_at <= now()", identifier);
+        }
+        return failure.get(0);
+    }
+
+    @Override
+    public int removeExpired() {
+        return jdbcTemplate.update("DELETE FROM otp_codes WHERE expires_at <= now()");
+    }
+
+    @Override
+    public long size() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM otp_codes", Long.class);
+        return count != null ? count : 0;
+    }
+}
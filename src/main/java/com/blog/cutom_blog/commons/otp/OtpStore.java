@@ -0,0 +1,41 @@
+package com.blog.cutom_blog.commons.otp;
+
+import java.time.Instant;
+
+/**
+ * Pending one-time passwords, keyed by the identifier they were issued for (a registration or user id).
+ * <p>
+ * Selected with {@code app.otp.store}: {@code memory} (the default) keeps codes on this node only, {@code jdbc}
+ * keeps them in Postgres so any replica can validate a code another one issued.
+ */
+public interface OtpStore {
+
+    enum Verification {
+        VALID,
+        INVALID,
+        EXPIRED,
+        NOT_FOUND,
+        TOO_MANY_ATTEMPTS
+    }
+
+    /**
+     * Stores a code, replacing any code pending for the identifier along with its failed attempts.
+     */
+    void put(String identifier, String otp, Instant expireAt);
+
+    /**
+     * Checks a code. A valid code is consumed; after {@code maxAttempts} wrong codes the identifier is locked out
+     * until a new code is issued or the current one expires.
+     */
+    Verification verify(String identifier, String otp, int maxAttempts);
+
+    /**
+     * Removes expired codes and returns how many were removed.
+     */
+    int removeExpired();
+
+    /**
+     * Codes currently stored, including expired ones not swept yet.
+     */
+    long size();
+}
@@ -0,0 +1,72 @@
+package com.blog.cutom_blog.commons.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-node store. A bucket is one {@link AtomicLong} updated by compare-and-set, so requests never take a lock,
+ * even on the same key. Keys come from client input, so their number is capped; while the map is full and holds no
+ * refilled bucket to sweep, requests for new keys are throttled rather than tracked.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public InMemoryRateLimitStore(@Value("${app.rate-limit.memory.max-entries:100000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public long acquire(String key, long intervalMillis, int burst) {
+        long now = now();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxEntries) {
+                removeExpired();
+                if (buckets.size() >= maxEntries) {
+                    return intervalMillis;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, ignored -> new AtomicLong(now));
+        }
+
+        long limit = intervalMillis * burst;
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + intervalMillis;
+            if (next - now > limit) {
+                return next - now - limit;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public int removeExpired() {
+        long now = now();
+        int before = buckets.size();
+        // A bucket refilled meanwhile is recreated full, which is the state it was removed in
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+        return Math.max(before - buckets.size(), 0);
+    }
+
+    @Override
+    public long size() {
+        return buckets.size();
+    }
+
+    // Monotonic, so wall clock adjustments cannot refill or drain buckets
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -0,0 +1,62 @@
+package com.blog.cutom_blog.commons.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Store shared by every replica, backed by the {@code rate_limits} table. A permit is one upsert that only moves
+ * the bucket forward when the request is allowed, so concurrent requests on the same key are serialized by its row
+ * lock. Times come from the database clock, so replicas with drifting clocks still agree.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc")
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final String NOW_MILLIS = "CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT)";
+
+    // EXCLUDED.tat is now plus one interval, which is also where an empty bucket ends up after this permit
+    private static final String ACQUIRE =
+        "INSERT INTO rate_limits (bucket_key, tat) VALUES (?, " + NOW_MILLIS + " + ?) " +
+        "ON CONFLICT (bucket_key) DO UPDATE SET tat = GREATEST(rate_limits.tat + ?, EXCLUDED.tat) " +
+        "WHERE GREATEST(rate_limits.tat + ?, EXCLUDED.tat) - EXCLUDED.tat <= ? " +
+        "RETURNING tat";
+
+    private static final String FIND_AHEAD =
+        "SELECT tat - " + NOW_MILLIS + " FROM rate_limits WHERE bucket_key = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long acquire(String key, long intervalMillis, int burst) {
+        long slack = intervalMillis * (burst - 1);
+        if (!jdbcTemplate.queryForList(ACQUIRE, Long.class, key, intervalMillis, intervalMillis, intervalMillis, slack)
+            .isEmpty()) {
+            return 0;
+        }
+
+        // Denied: the bucket is further ahead than the burst allows, by exactly the wait
+        List<Long> ahead = jdbcTemplate.queryForList(FIND_AHEAD, Long.class, key);
+        if (ahead.isEmpty()) {
+            return 0;
+        }
+        return Math.max(ahead.get(0) - slack, 1);
+    }
+
+    @Override
+    public int removeExpired() {
+        return jdbcTemplate.update("DELETE FROM rate_limits WHERE tat <= " + NOW_MILLIS);
+    }
+
+    @Override
+    public long size() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limits", Long.class);
+        return count != null ? count : 0;
+    }
+}
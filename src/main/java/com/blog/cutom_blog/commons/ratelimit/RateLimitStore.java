@@ -0,0 +1,31 @@
+package com.blog.cutom_blog.commons.ratelimit;
+
+/**
+ * Rate limit state, one entry per bucket key.
+ * <p>
+ * Buckets follow the generic cell rate algorithm: an entry is only the theoretical arrival time of the next request,
+ * in milliseconds. Each permit moves it one emission interval ahead, and a request is let through as long as that
+ * stays within {@code burst} intervals of now, which behaves like a token bucket of {@code burst} tokens refilled one
+ * per interval. An entry whose time has passed is a full bucket and can be dropped.
+ * <p>
+ * Selected with {@code app.rate-limit.store}: {@code memory} (the default) limits each node on its own, {@code jdbc}
+ * shares buckets across replicas through Postgres.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one permit from a bucket. Returns 0 when the request may proceed, otherwise how many milliseconds until
+     * the next permit is available; a denied request takes nothing.
+     */
+    long acquire(String key, long intervalMillis, int burst);
+
+    /**
+     * Drops buckets that have refilled completely and returns how many were dropped.
+     */
+    int removeExpired();
+
+    /**
+     * Buckets currently stored, including full ones not swept yet.
+     */
+    long size();
+}
@@ -12,13 +12,16 @@ public class AppProperties {
     private final EmailConfig emailConfig;
     private final String defaultFromEmail;
     private final boolean skipEmailVerification;
+    // Public address of the site, used for links in emails
+    private final String baseUrl;
 
 
-    public AppProperties(final Environment environment, final EmailConfig emailConfig, final String defaultFromEmail, final boolean skipEmailVerification) {
+    public AppProperties(final Environment environment, final EmailConfig emailConfig, final String defaultFromEmail, final boolean skipEmailVerification, final String baseUrl) {
         this.environment = environment;
         this.emailConfig = emailConfig;
         this.defaultFromEmail = defaultFromEmail;
         this.skipEmailVerification = skipEmailVerification;
+        this.baseUrl = baseUrl;
     }
 
     @Getter
@@ -2,6 +2,8 @@ package com.blog.cutom_blog.config.security_configuration;
 
 
 
+import com.blog.cutom_blog.services.TokenVersionService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +19,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
@@ -25,40 +28,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-
-        // Skip JWT filter for public endpoints ONLY
-        // Public GET endpoints for posts (but not admin-only endpoints like /by-status)
-        boolean isPublicPostsEndpoint = "GET".equals(method) && (
-            path.equals("/api/posts") ||  // GET /api/posts
-            path.matches("/api/posts/[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}") ||  // GET /api/posts/{uuid}
-            path.startsWith("/api/posts/slug/") ||  // GET /api/posts/slug/{slug}
-            path.startsWith("/api/posts/search")  // GET /api/posts/search
-        );
-
-        return path.startsWith("/v1/registration") ||
-               path.startsWith("/api/auth") ||
-               isPublicPostsEndpoint ||
-               (path.startsWith("/api/categories") && "GET".equals(method)) ||
-               (path.startsWith("/api/tags") && "GET".equals(method)) ||
-               path.startsWith("/api/subscribers") ||
-               path.startsWith("/api/password-reset") ||
-               path.startsWith("/css") ||
-               path.startsWith("/js") ||
-               path.startsWith("/assets") ||
-               path.startsWith("/static") ||
-               path.equals("/") ||
-               path.equals("/login") ||
-               path.equals("/register") ||
-               path.equals("/about") ||
-               path.equals("/post") ||
-               path.equals("/privacy") ||
-               path.equals("/terms");
+        // Skip JWT filter for public endpoints ONLY (see PublicRoutes)
+        return PublicRoutes.skipsAuthentication(request);
     }
 
     @Override
@@ -68,15 +46,24 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             String jwt = parseJwt(request);
             logger.debug("Processing request to: {} - JWT present: {}", request.getRequestURI(), jwt != null);
 
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Optional<Claims> claims = jwtUtils.parseClaims(jwt);
+            if (claims.isPresent()) {
+                String username = claims.get().getSubject();
                 logger.debug("JWT validated for user: {}", username);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                System.out.println("=== DEBUG AuthTokenFilter ===");
-                System.out.println("Username: " + username);
-                System.out.println("Authorities from UserDetails: " + userDetails.getAuthorities());
-                System.out.println("=============================");
+                // Identity and role come from the verified token; only tokens issued before they were
+                // embedded still need the user loaded from the database
+                UserDetailsImpl tokenPrincipal = jwtUtils.getUserDetails(claims.get());
+                UserDetails userDetails;
+                if (tokenPrincipal == null) {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                } else if (tokenVersionService.isCurrent(tokenPrincipal.getId(), tokenPrincipal.getTokenVersion())) {
+                    userDetails = tokenPrincipal;
+                } else {
+                    logger.debug("Revoked JWT presented for user: {}", username);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
                 UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(userDetails,
@@ -0,0 +1,193 @@
+package com.blog.cutom_blog.config.security_configuration;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The one table of public routes, shared by {@link SecurityConfig} and {@link AuthTokenFilter}.
+ * <p>
+ * A route can be permitted without authentication, skip JWT processing, or both. Routes that are only permitted
+ * still have a token applied when one is sent (admin-only handlers under {@code /api/posts/*} rely on that); routes
+ * that only skip JWT processing are otherwise governed by the authenticated rules.
+ * <p>
+ * The table is compiled once into a trie of path segments, so matching a request walks its path once whatever
+ * the number of routes. Segments are literals, {@code *} for any one segment, {@code {uuid}} for a segment
+ * matching a precompiled pattern, and a trailing {@code **} for any remainder, including none.
+ */
+public final class PublicRoutes {
+    private static final int PERMIT_ALL = 1;
+    private static final int SKIP_AUTHENTICATION = 2;
+    private static final int PUBLIC = PERMIT_ALL | SKIP_AUTHENTICATION;
+
+    private static final Map<String, Pattern> SEGMENT_PATTERNS = Map.of(
+        "{uuid}", Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}"));
+
+    private static final PublicRoutes ROUTES = new PublicRoutes()
+        // Public API endpoints
+        .add(null, "/v1/registration/**", PUBLIC)
+        .add(null, "/api/auth/**", PUBLIC)
+        .add(null, "/api/subscribers/**", PUBLIC)
+        .add(null, "/api/password-reset/**", PUBLIC)
+        // Public post reads; other GETs under /api/posts/* are permitted but still authenticated for @PreAuthorize
+        .add(HttpMethod.GET, "/api/posts", PUBLIC)
+        .add(HttpMethod.GET, "/api/posts/{uuid}", PUBLIC)
+        .add(HttpMethod.GET, "/api/posts/*", PERMIT_ALL)
+        .add(HttpMethod.GET, "/api/posts/slug/**", PUBLIC)
+        .add(HttpMethod.GET, "/api/posts/search", PUBLIC)
+        .add(HttpMethod.POST, "/api/posts/*/views", PUBLIC)
+        // Viewing comments
+        .add(HttpMethod.GET, "/api/posts/*/comments", PERMIT_ALL)
+        .add(HttpMethod.GET, "/api/posts/*/comments/thread", PERMIT_ALL)
+        .add(HttpMethod.GET, "/api/posts/*/comments/stream", PUBLIC)
+        .add(HttpMethod.GET, "/api/categories/**", SKIP_AUTHENTICATION)
+        .add(HttpMethod.GET, "/api/tags/**", SKIP_AUTHENTICATION)
+        // Static resources
+        .add(null, "/css/**", PUBLIC)
+        .add(null, "/js/**", PUBLIC)
+        .add(null, "/assets/**", PUBLIC)
+        .add(null, "/static/**", PUBLIC)
+        .add(null, "/uploads/**", PERMIT_ALL)
+        // Public web pages (pages will handle auth checks via JavaScript)
+        .add(null, "/", PUBLIC)
+        .add(null, "/login", PUBLIC)
+        .add(null, "/register", PUBLIC)
+        .add(null, "/about", PUBLIC)
+        .add(null, "/post", PUBLIC)
+        .add(null, "/category/*", PUBLIC)
+        .add(null, "/privacy", PUBLIC)
+        .add(null, "/terms", PUBLIC)
+        .add(null, "/admin-signup", PERMIT_ALL)
+        .add(null, "/dashboard", PERMIT_ALL)
+        .add(null, "/create-post", PERMIT_ALL)
+        .add(null, "/preview-post", PERMIT_ALL)
+        .add(null, "/error", PERMIT_ALL);
+
+    private final Node root = new Node();
+
+    private PublicRoutes() {
+    }
+
+    /**
+     * Requests that need no authentication; goes before the authenticated rules in the filter chain.
+     */
+    public static RequestMatcher permitAllMatcher() {
+        return request -> (ROUTES.match(request) & PERMIT_ALL) != 0;
+    }
+
+    /**
+     * Requests {@link AuthTokenFilter} does not process at all.
+     */
+    public static boolean skipsAuthentication(HttpServletRequest request) {
+        return (ROUTES.match(request) & SKIP_AUTHENTICATION) != 0;
+    }
+
+    private PublicRoutes add(HttpMethod method, String route, int flags) {
+        Node node = root;
+        String[] segments = segments(route);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals("**")) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("** must be the last segment of " + route);
+                }
+                node.remainderRules.add(new Rule(method, flags));
+                return this;
+            }
+            node = node.child(segment);
+        }
+        node.endRules.add(new Rule(method, flags));
+        return this;
+    }
+
+    private int match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return match(root, segments(path), 0, request.getMethod());
+    }
+
+    private static int match(Node node, String[] segments, int index, String method) {
+        int flags = Rule.flags(node.remainderRules, method);
+        if (index == segments.length) {
+            return flags | Rule.flags(node.endRules, method);
+        }
+        String segment = segments[index];
+        Node literal = node.literals.get(segment);
+        if (literal != null) {
+            flags |= match(literal, segments, index + 1, method);
+        }
+        for (int i = 0; i < node.patterns.size(); i++) {
+            if (node.patterns.get(i).matcher(segment).matches()) {
+                flags |= match(node.patternChildren.get(i), segments, index + 1, method);
+            }
+        }
+        if (node.anySegment != null) {
+            flags |= match(node.anySegment, segments, index + 1, method);
+        }
+        return flags;
+    }
+
+    private static String[] segments(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (end > start) {
+                segments.add(path.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final List<Pattern> patterns = new ArrayList<>();
+        private final List<Node> patternChildren = new ArrayList<>();
+        private Node anySegment;
+        private final List<Rule> endRules = new ArrayList<>();
+        private final List<Rule> remainderRules = new ArrayList<>();
+
+        private Node child(String segment) {
+            if (segment.equals("*")) {
+                if (anySegment == null) {
+                    anySegment = new Node();
+                }
+                return anySegment;
+            }
+            Pattern pattern = SEGMENT_PATTERNS.get(segment);
+            if (pattern != null) {
+                int existing = patterns.indexOf(pattern);
+                if (existing >= 0) {
+                    return patternChildren.get(existing);
+                }
+                Node child = new Node();
+                patterns.add(pattern);
+                patternChildren.add(child);
+                return child;
+            }
+            return literals.computeIfAbsent(segment, key -> new Node());
+        }
+    }
+
+    private record Rule(HttpMethod method, int flags) {
+        private static int flags(List<Rule> rules, String method) {
+            int flags = 0;
+            for (int i = 0; i < rules.size(); i++) {
+                Rule rule = rules.get(i);
+                if (rule.method == null || rule.method.name().equals(method)) {
+                    flags |= rule.flags;
+                }
+            }
+            return flags;
+        }
+    }
+}
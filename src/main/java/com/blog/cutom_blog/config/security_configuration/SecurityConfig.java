@@ -1,5 +1,6 @@
 package com.blog.cutom_blog.config.security_configuration;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -67,25 +68,15 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             // Authorization rules
             .authorizeHttpRequests(auth -> auth
-                // Public API endpoints - MUST come first before web pages
-                .requestMatchers("/v1/registration", "/v1/registration/**").permitAll()
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/subscribers/**").permitAll()
-                .requestMatchers("/api/password-reset/**").permitAll()
-                // Public GET endpoints for posts
-                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/posts", "/api/posts/*", "/api/posts/slug/**", "/api/posts/search").permitAll()
-                // Public GET endpoints for comments (viewing comments)
-                .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/posts/*/comments").permitAll()
+                // Async results (uploads) were authorized on the original dispatch; the JWT filter does not run again
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Public endpoints, static resources and pages - MUST come first (see PublicRoutes)
+                .requestMatchers(PublicRoutes.permitAllMatcher()).permitAll()
                 // Authenticated endpoints for comments (creating/deleting comments)
                 .requestMatchers("/api/posts/*/comments", "/api/comments/**").authenticated()
                 // Admin endpoints require role check - let @PreAuthorize handle it
                 .requestMatchers("/api/posts/**", "/api/categories/**", "/api/tags/**", "/api/dashboard/**").authenticated()
                 .requestMatchers("/api/upload/**").authenticated()
-                // Static resources
-                .requestMatchers("/css/**", "/js/**", "/assets/**", "/static/**", "/uploads/**").permitAll()
-                // Public web pages (pages will handle auth checks via JavaScript)
-                .requestMatchers("/", "/login", "/register", "/admin-signup", "/about", "/post", "/privacy", "/terms", "/dashboard", "/create-post", "/preview-post").permitAll()
-                .requestMatchers("/error").permitAll()
                 // Admin endpoints - API level protection
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .anyRequest().permitAll()
@@ -1,26 +1,71 @@
 package com.blog.cutom_blog.config.security_configuration;
 
 
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
 import com.blog.cutom_blog.models.User;
 import com.blog.cutom_blog.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+
+/**
+ * Loads principals for sign-in and for tokens without identity claims.
+ * <p>
+ * Principals are cached by the username or email they were looked up with. Every cache hit is a user query and a
+ * role lookup the auth path did not run; the admin cache stats report them per minute as {@code userDetails}
+ * hits. Entries expire after a short TTL and are evicted explicitly whenever the user is written.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
+    private static final int MAX_CACHED_USERS = 10_000;
+
     @Autowired
     UserRepository userRepository;
 
     @Autowired
     com.blog.cutom_blog.services.RoleService roleService;
 
+    @Autowired
+    CacheRegistry cacheRegistry;
+
+    @Value("${app.auth.user-cache-ttl:PT5M}")
+    Duration userCacheTtl;
+
+    private Cache<String, UserDetailsImpl> principals;
+
+    @PostConstruct
+    public void init() {
+        principals = cacheRegistry.register("userDetails", Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_USERS)
+            .expireAfterWrite(userCacheTtl)
+            .recordStats()
+            .build());
+    }
+
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // A missing user makes the loader throw, so unknown logins are never cached
+        return principals.get(username, this::loadUser);
+    }
+
+    /**
+     * Drops every cached principal of the user, whichever login it was cached under.
+     */
+    public void evict(String userId) {
+        principals.asMap().values().removeIf(principal -> principal.getId().equals(userId));
+    }
+
+    private UserDetailsImpl loadUser(String username) {
         // Try to find by username first, then by email
         User user = userRepository.findByUsername(username)
             .or(() -> userRepository.findByEmail(username))
@@ -29,4 +74,4 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         // Build UserDetailsImpl with roleService
         return UserDetailsImpl.build(user, roleService);
     }
-}
\ No newline at end of file
+}
@@ -7,7 +7,10 @@ import com.blog.cutom_blog.dtos.AdminSignupRequest;
 import com.blog.cutom_blog.dtos.JwtResponse;
 import com.blog.cutom_blog.dtos.LoginRequest;
 import com.blog.cutom_blog.dtos.MessageResponse;
+import com.blog.cutom_blog.enums.ERateLimit;
+import com.blog.cutom_blog.services.RateLimitService;
 import com.blog.cutom_blog.services.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -34,8 +37,16 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    RateLimitService rateLimitService;
+
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
+        // Per account and address against guessing one password, per address against trying many accounts. The
+        // account bucket includes the address so sign-ins from elsewhere cannot use it up and lock the owner out.
+        String address = "ip:" + request.getRemoteAddr();
+        rateLimitService.acquire(ERateLimit.LOGIN, address + "|email:" + loginRequest.getEmail(), address);
 
         Authentication authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
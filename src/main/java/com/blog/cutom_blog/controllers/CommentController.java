@@ -4,7 +4,11 @@ import com.blog.cutom_blog.config.security_configuration.UserDetailsImpl;
 import com.blog.cutom_blog.dtos.ApiResponse;
 import com.blog.cutom_blog.dtos.CommentRequest;
 import com.blog.cutom_blog.dtos.CommentResponse;
+import com.blog.cutom_blog.enums.ERateLimit;
 import com.blog.cutom_blog.services.CommentService;
+import com.blog.cutom_blog.services.CommentStreamService;
+import com.blog.cutom_blog.services.RateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,9 +17,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
@@ -23,17 +29,21 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class CommentController {
     private final CommentService commentService;
+    private final CommentStreamService commentStreamService;
+    private final RateLimitService rateLimitService;
 
     @PostMapping("/posts/{postId}/comments")
     public ResponseEntity<ApiResponse<CommentResponse>> createComment(
             @PathVariable String postId,
             @Valid @RequestBody CommentRequest request,
-            Authentication authentication) {
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
 
         log.info("POST /api/posts/{}/comments - User: {}", postId, authentication.getName());
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         String userId = userDetails.getId();
+        rateLimitService.acquire(ERateLimit.COMMENT, "user:" + userId, "ip:" + httpRequest.getRemoteAddr());
         CommentResponse comment = commentService.createComment(postId, request, userId);
 
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -60,6 +70,36 @@ public class CommentController {
                 .build());
     }
 
+    /**
+     * Threaded comments: pages over root comments and nests every reply below them.
+     * Example: /api/posts/{postId}/comments/thread?page=0&size=10
+     */
+    @GetMapping("/posts/{postId}/comments/thread")
+    public ResponseEntity<ApiResponse<Page<CommentResponse>>> getCommentThreads(
+            @PathVariable String postId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        log.info("GET /api/posts/{}/comments/thread - Page: {}, Size: {}", postId, page, size);
+
+        Pageable pageable = PageRequest.of(page, size);
+        Page<CommentResponse> threads = commentService.getCommentThreadsByPostId(postId, pageable);
+
+        return ResponseEntity.ok(ApiResponse.<Page<CommentResponse>>builder()
+                .message("Comment threads retrieved successfully")
+                .data(threads)
+                .build());
+    }
+
+    /**
+     * Live stream of the comments created, edited and deleted on a post, as {@code comment} events.
+     */
+    @GetMapping(value = "/posts/{postId}/comments/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComments(@PathVariable String postId) {
+        log.info("GET /api/posts/{}/comments/stream", postId);
+        return commentStreamService.subscribe(postId);
+    }
+
     @PutMapping("/comments/{commentId}")
     public ResponseEntity<ApiResponse<CommentResponse>> updateComment(
             @PathVariable String commentId,
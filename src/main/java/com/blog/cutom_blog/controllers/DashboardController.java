@@ -1,6 +1,10 @@
 package com.blog.cutom_blog.controllers;
 
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
+import com.blog.cutom_blog.services.CommentStreamService;
 import com.blog.cutom_blog.services.DashboardStatsService;
+import com.blog.cutom_blog.services.OtpService;
+import com.blog.cutom_blog.services.RateLimitService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,6 +21,18 @@ public class DashboardController {
     @Autowired
     private DashboardStatsService dashboardStatsService;
 
+    @Autowired
+    private CacheRegistry cacheRegistry;
+
+    @Autowired
+    private OtpService otpService;
+
+    @Autowired
+    private CommentStreamService commentStreamService;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
         Map<String, Object> stats = dashboardStatsService.getDashboardStatistics();
@@ -35,6 +51,26 @@ public class DashboardController {
         return ResponseEntity.ok(stats);
     }
 
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(cacheRegistry.snapshot());
+    }
+
+    @GetMapping("/otp")
+    public ResponseEntity<Map<String, Object>> getOtpStats() {
+        return ResponseEntity.ok(otpService.getStats());
+    }
+
+    @GetMapping("/comment-streams")
+    public ResponseEntity<Map<String, Object>> getCommentStreamStats() {
+        return ResponseEntity.ok(commentStreamService.getStats());
+    }
+
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimitService.getStats());
+    }
+
     @GetMapping("/stats/engagement")
     public ResponseEntity<Map<String, Object>> getEngagementStats() {
         Map<String, Object> stats = dashboardStatsService.getEngagementStats();
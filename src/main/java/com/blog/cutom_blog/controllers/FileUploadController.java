@@ -1,6 +1,7 @@
 package com.blog.cutom_blog.controllers;
 
-import com.blog.cutom_blog.config.FileUploadConfig;
+import com.blog.cutom_blog.exceptions.WebApiException;
+import com.blog.cutom_blog.services.ImageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,13 +13,9 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/upload")
@@ -27,52 +24,53 @@ public class FileUploadController {
     private static final Logger logger = LoggerFactory.getLogger(FileUploadController.class);
 
     @Autowired
-    private FileUploadConfig fileUploadConfig;
+    private ImageService imageService;
 
+    /**
+     * Stores an image with its resized widths. Processing runs off the request thread, and the response lists the
+     * widths written along with a {@code srcset} for them.
+     */
     @PostMapping("/image")
-    public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file) {
+    public CompletableFuture<ResponseEntity<?>> uploadImage(@RequestParam("file") MultipartFile file) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         logger.info("Upload request received - Authenticated: {} - User: {}",
                 auth != null && auth.isAuthenticated(),
                 auth != null ? auth.getName() : "none");
 
-        try {
-            // Validate file
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Please select a file to upload"));
-            }
-
-            // Validate file type
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Only image files are allowed"));
-            }
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String filename = UUID.randomUUID().toString() + extension;
-
-            // Save file
-            Path uploadPath = Paths.get(fileUploadConfig.getUploadDir());
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return URL
-            String fileUrl = "/uploads/" + filename;
-            Map<String, String> response = new HashMap<>();
-            response.put("url", fileUrl);
-            response.put("filename", filename);
+        // Validate file
+        if (file.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("error", "Please select a file to upload")));
+        }
 
-            return ResponseEntity.ok(response);
+        // Validate file type
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("error", "Only image files are allowed")));
+        }
 
+        // Read while the request still owns the multipart temp file
+        byte[] content;
+        try {
+            content = file.getBytes();
         } catch (IOException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to upload file: " + e.getMessage()));
+            logger.error("Failed to read upload: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to upload file: " + e.getMessage())));
         }
+
+        return imageService.store(content, file.getOriginalFilename())
+                .<ResponseEntity<?>>thenApply(image -> ResponseEntity.ok(image.toResponse()))
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof WebApiException webApiException) {
+                        throw webApiException;
+                    }
+                    logger.error("Failed to store upload", cause);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(Map.of("error", "Failed to upload file: " + cause.getMessage()));
+                });
     }
-}
\ No newline at end of file
+}
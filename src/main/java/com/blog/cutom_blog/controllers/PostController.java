@@ -1,20 +1,34 @@
 package com.blog.cutom_blog.controllers;
 
 import com.blog.cutom_blog.dtos.MessageResponse;
+import com.blog.cutom_blog.dtos.PostFeedResponse;
 import com.blog.cutom_blog.dtos.PostRequest;
 import com.blog.cutom_blog.dtos.PostResponse;
+import com.blog.cutom_blog.dtos.PostSearchResponse;
+import com.blog.cutom_blog.dtos.PostSummaryResponse;
 import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.repositories.CountersRepository.SiteCounter;
+import com.blog.cutom_blog.repositories.projections.PostFeedVersionView;
+import com.blog.cutom_blog.repositories.projections.PostSummaryView;
+import com.blog.cutom_blog.repositories.projections.PostVersionView;
+import com.blog.cutom_blog.services.CounterService;
+import com.blog.cutom_blog.services.PostSearchService;
 import com.blog.cutom_blog.services.PostService;
+import com.blog.cutom_blog.utils.HttpValidators;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -22,32 +36,103 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/posts")
 public class PostController {
 
+    // Public listings change whenever anything is published, so caches must always revalidate
+    private static final CacheControl FEED_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+    private static final CacheControl POST_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+    // Looked up by id from the admin editor, so keep it out of shared caches
+    private static final CacheControl POST_BY_ID_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private CounterService counterService;
+
     @GetMapping
-    public ResponseEntity<Page<PostResponse>> getAllPosts(
+    public ResponseEntity<Page<PostSummaryResponse>> getAllPosts(
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size) {
-        Page<Post> posts = postService.getAllPublishedPosts(page, size);
-        Page<PostResponse> postResponses = posts.map(postService::toPostResponse);
+        @RequestParam(defaultValue = "10") int size,
+        ServletWebRequest webRequest) {
+        if (feedNotModified(webRequest)) {
+            return null;
+        }
+        Page<PostSummaryView> posts = postService.getAllPublishedPosts(page, size);
+        Page<PostSummaryResponse> postResponses = postService.toPostSummaries(posts);
         return ResponseEntity.ok(postResponses);
     }
 
+    /**
+     * Cursor mode of the public feed, selected when an {@code after} parameter is present.
+     * Example: /api/posts?after=&size=10, then /api/posts?after={nextCursor}&size=10
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<PostFeedResponse> getPostFeed(
+        @RequestParam String after,
+        @RequestParam(defaultValue = "10") int size,
+        ServletWebRequest webRequest) {
+        if (feedNotModified(webRequest)) {
+            return null;
+        }
+        Slice<PostSummaryView> posts = postService.getPublishedFeed(after, size);
+        return ResponseEntity.ok(postService.toPostFeed(posts));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<PostResponse> getPostById(@PathVariable String id) {
-        return postService.getPostById(id)
-            .map(post -> ResponseEntity.ok().body(postService.toPostResponse(post)))
+    public ResponseEntity<PostResponse> getPostById(@PathVariable String id, ServletWebRequest webRequest) {
+        Optional<PostVersionView> version = postService.getPostVersionById(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (postNotModified(webRequest, version.get(), POST_BY_ID_CACHE_CONTROL)) {
+            return null;
+        }
+        return postService.getPostResponseById(id)
+            .map(post -> ResponseEntity.ok().body(post))
             .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<PostResponse> getPostBySlug(@PathVariable String slug) {
-        return postService.getPostBySlug(slug)
-            .map(post -> ResponseEntity.ok().body(postService.toPostResponse(post)))
+    public ResponseEntity<PostResponse> getPostBySlug(@PathVariable String slug, ServletWebRequest webRequest) {
+        Optional<PostVersionView> version = postService.getPostVersionBySlug(slug);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (postNotModified(webRequest, version.get(), POST_CACHE_CONTROL)) {
+            return null;
+        }
+        return postService.getPostResponseBySlug(slug)
+            .map(post -> ResponseEntity.ok().body(post))
             .orElse(ResponseEntity.notFound().build());
     }
 
+    private boolean postNotModified(ServletWebRequest webRequest, PostVersionView version, CacheControl cacheControl) {
+        String etag = HttpValidators.strongEtag("post", version.getId(),
+            String.valueOf(HttpValidators.toEpochMillis(version.getLastModified())));
+        return HttpValidators.checkNotModified(webRequest, cacheControl, etag, version.getLastModified());
+    }
+
+    private boolean feedNotModified(ServletWebRequest webRequest) {
+        PostFeedVersionView version = postService.getPublishedFeedVersion();
+        // Feed entries carry comment counts, which change without touching any post
+        long comments = counterService.getSiteCounters().getOrDefault(SiteCounter.COMMENTS, 0L);
+        String etag = HttpValidators.strongEtag("feed", String.valueOf(version.getPostCount()),
+            String.valueOf(HttpValidators.toEpochMillis(version.getLastModified())), String.valueOf(comments));
+        return HttpValidators.checkNotModified(webRequest, FEED_CACHE_CONTROL, etag, version.getLastModified());
+    }
+
+    /**
+     * Counts one view of a post. Called by the article page once it has loaded, so pre-rendered pages can still be
+     * served straight from the page cache.
+     */
+    @PostMapping("/{id}/views")
+    public ResponseEntity<Void> recordView(@PathVariable String id) {
+        postService.recordView(id);
+        return ResponseEntity.noContent().build();
+    }
+
     // Removed: getPostsByCategory - categories are now enums, filter client-side if needed
 
 //    @GetMapping("/tag/{tagId}")
@@ -60,13 +145,11 @@ public class PostController {
 //    }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<PostResponse>> searchPosts(
+    public ResponseEntity<Page<PostSearchResponse>> searchPosts(
         @RequestParam String keyword,
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "10") int size) {
-        Page<Post> posts = postService.searchPosts(keyword, page, size);
-        Page<PostResponse> postResponses = posts.map(postService::toPostResponse);
-        return ResponseEntity.ok(postResponses);
+        return ResponseEntity.ok(postSearchService.search(keyword, page, size));
     }
 
     @PostMapping
@@ -130,7 +213,7 @@ public class PostController {
      */
     @GetMapping("/by-status")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<PostResponse>> getPostsByStatuses(
+    public ResponseEntity<Page<PostSummaryResponse>> getPostsByStatuses(
         @RequestParam List<String> statuses,
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "10") int size,
@@ -146,8 +229,8 @@ public class PostController {
             .map(status -> Post.PostStatus.valueOf(status.toUpperCase()))
             .collect(Collectors.toList());
 
-        Page<Post> posts = postService.getPostsByStatuses(postStatuses, page, size);
-        Page<PostResponse> postResponses = posts.map(postService::toPostResponse);
+        Page<PostSummaryView> posts = postService.getPostsByStatuses(postStatuses, page, size);
+        Page<PostSummaryResponse> postResponses = postService.toPostSummaries(posts);
 
         return ResponseEntity.ok(postResponses);
     }
@@ -157,13 +240,13 @@ public class PostController {
      */
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<PostResponse>> getPostsByStatus(
+    public ResponseEntity<Page<PostSummaryResponse>> getPostsByStatus(
         @PathVariable String status,
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "10") int size) {
         Post.PostStatus postStatus = Post.PostStatus.valueOf(status.toUpperCase());
-        Page<Post> posts = postService.getAllPostsByStatus(postStatus, page, size);
-        Page<PostResponse> postResponses = posts.map(postService::toPostResponse);
+        Page<PostSummaryView> posts = postService.getAllPostsByStatus(postStatus, page, size);
+        Page<PostSummaryResponse> postResponses = postService.toPostSummaries(posts);
         return ResponseEntity.ok(postResponses);
     }
 
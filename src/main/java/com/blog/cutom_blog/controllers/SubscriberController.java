@@ -2,8 +2,11 @@ package com.blog.cutom_blog.controllers;
 
 
 import com.blog.cutom_blog.dtos.MessageResponse;
+import com.blog.cutom_blog.enums.ERateLimit;
 import com.blog.cutom_blog.models.Subscriber;
+import com.blog.cutom_blog.services.RateLimitService;
 import com.blog.cutom_blog.services.SubscriberService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,8 +24,15 @@ public class SubscriberController {
     @Autowired
     private SubscriberService subscriberService;
 
+    @Autowired
+    private RateLimitService rateLimitService;
+
     @PostMapping("/subscribe")
-    public ResponseEntity<?> subscribe(@Valid @RequestBody SubscribeRequest subscribeRequest) {
+    public ResponseEntity<?> subscribe(@Valid @RequestBody SubscribeRequest subscribeRequest,
+                                       HttpServletRequest request) {
+        // The email bucket includes the address, so requests from elsewhere cannot use it up and lock the owner out
+        String address = "ip:" + request.getRemoteAddr();
+        rateLimitService.acquire(ERateLimit.SUBSCRIBE, address + "|email:" + subscribeRequest.getEmail(), address);
         try {
             Subscriber subscriber = subscriberService.subscribe(subscribeRequest.getEmail());
             return ResponseEntity.ok(new MessageResponse("Successfully subscribed!"));
@@ -1,16 +1,36 @@
 package com.blog.cutom_blog.controllers;
 
+import com.blog.cutom_blog.enums.ECategory;
+import com.blog.cutom_blog.services.PageSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.net.URI;
+import java.util.Arrays;
+
 @Controller
 public class WebController {
 
+    @Autowired
+    private PageSnapshotService pageSnapshotService;
+
     @GetMapping("/")
-    public String index() {
-        return "index";
+    public ResponseEntity<String> index() {
+        return html(pageSnapshotService.getHomePage());
+    }
+
+    @GetMapping("/category/{category}")
+    public ResponseEntity<String> category(@PathVariable String category) {
+        return Arrays.stream(ECategory.values())
+            .filter(value -> value.name().equalsIgnoreCase(category))
+            .findFirst()
+            .map(value -> html(pageSnapshotService.getCategoryPage(value)))
+            .orElseGet(() -> ResponseEntity.status(302).location(URI.create("/")).build());
     }
 
     @GetMapping("/about")
@@ -28,12 +48,16 @@ public class WebController {
         return "register";
     }
 
+    /**
+     * Published posts are served pre-rendered; anything else falls back to the client-rendered page.
+     */
     @GetMapping("/post")
-    public String post(@RequestParam(required = false) String slug, Model model) {
-        if (slug != null) {
-            model.addAttribute("slug", slug);
+    public ResponseEntity<String> post(@RequestParam(required = false) String slug) {
+        if (slug == null) {
+            return html(pageSnapshotService.renderPostShell(null));
         }
-        return "post";
+        return html(pageSnapshotService.getPostPage(slug)
+            .orElseGet(() -> pageSnapshotService.renderPostShell(slug)));
     }
 
     @GetMapping("/dashboard")
@@ -65,4 +89,8 @@ public class WebController {
     public String previewPost() {
         return "preview-post";
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<String> html(String page) {
+        return ResponseEntity.ok().contentType(MediaType.TEXT_HTML).body(page);
+    }
+}
@@ -27,4 +27,8 @@ public class CommentResponse {
     private LocalDateTime updatedAt;
 
     private java.util.List<CommentResponse> replies;  // Nested replies
+
+    // Set on threaded responses: nesting level below the root comment, and number of replies in the whole subtree
+    private Integer depth;
+    private Integer replyCount;
 }
@@ -0,0 +1,22 @@
+package com.blog.cutom_blog.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of the keyset-paginated feed. Pass {@code nextCursor} back as {@code after} to fetch the next slice.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostFeedResponse {
+    private List<PostSummaryResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
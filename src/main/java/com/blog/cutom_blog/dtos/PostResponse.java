@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PostResponse {
@@ -23,10 +23,12 @@ public class PostResponse {
     private String slug;
     private CategoryDTO category;
     private String featuredImage;
+    // Resized widths of an uploaded featured image, for an img srcset; null when there are none
+    private String featuredImageSrcset;
     private Set<String> tags;
     private EStatus status;
     private AuthorDTO author;
-    private Integer viewCount;
+    private Long viewCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime publishedAt;
@@ -0,0 +1,25 @@
+package com.blog.cutom_blog.dtos;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A search result. The summary fields are serialized inline so existing search consumers keep working;
+ * {@code rank} and {@code highlight} are additions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSearchResponse {
+    @JsonUnwrapped
+    private PostSummaryResponse post;
+
+    private Double rank;
+
+    // Matching fragments with terms wrapped in <mark>...</mark>
+    private String highlight;
+}
@@ -0,0 +1,34 @@
+package com.blog.cutom_blog.dtos;
+
+import com.blog.cutom_blog.enums.EStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSummaryResponse {
+    private String id;
+    private String title;
+    private String subtitle;
+    private String excerpt;
+    private String slug;
+    private PostResponse.CategoryDTO category;
+    private String featuredImage;
+    // Resized widths of an uploaded featured image, for an img srcset; null when there are none
+    private String featuredImageSrcset;
+    private EStatus status;
+    private PostResponse.AuthorDTO author;
+    private Long viewCount;
+    private Long commentCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime publishedAt;
+    private String metaTitle;
+    private String metaDescription;
+}
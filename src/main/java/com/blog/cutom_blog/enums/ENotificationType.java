@@ -0,0 +1,5 @@
+package com.blog.cutom_blog.enums;
+
+public enum ENotificationType {
+    NEW_POST
+}
@@ -0,0 +1,35 @@
+package com.blog.cutom_blog.enums;
+
+import java.time.Duration;
+
+/**
+ * Rate-limited write paths with their default allowance, overridable under {@code app.rate-limit.<key>}.
+ * A client may use all its permits at once, after which they come back evenly over the period.
+ */
+public enum ERateLimit {
+    COMMENT("comment", 5, Duration.ofMinutes(1)),
+    SUBSCRIBE("subscribe", 5, Duration.ofHours(1)),
+    LOGIN("login", 10, Duration.ofMinutes(5));
+
+    private final String key;
+    private final int defaultPermits;
+    private final Duration defaultPeriod;
+
+    ERateLimit(String key, int defaultPermits, Duration defaultPeriod) {
+        this.key = key;
+        this.defaultPermits = defaultPermits;
+        this.defaultPeriod = defaultPeriod;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getDefaultPermits() {
+        return defaultPermits;
+    }
+
+    public Duration getDefaultPeriod() {
+        return defaultPeriod;
+    }
+}
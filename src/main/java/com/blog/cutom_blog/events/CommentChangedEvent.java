@@ -0,0 +1,41 @@
+package com.blog.cutom_blog.events;
+
+import com.blog.cutom_blog.dtos.CommentResponse;
+import com.blog.cutom_blog.models.Comment;
+import lombok.Getter;
+
+/**
+ * Published by {@link com.blog.cutom_blog.services.CommentService} whenever a comment is created, edited or deleted.
+ * Created and edited comments carry the response sent to their author, so listeners can pass it on as is.
+ */
+@Getter
+public class CommentChangedEvent {
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final String commentId;
+    private final String postId;
+    private final CommentResponse comment;
+
+    public CommentChangedEvent(final Type type, final String commentId, final String postId,
+                               final CommentResponse comment) {
+        this.type = type;
+        this.commentId = commentId;
+        this.postId = postId;
+        this.comment = comment;
+    }
+
+    public static CommentChangedEvent created(CommentResponse comment) {
+        return new CommentChangedEvent(Type.CREATED, comment.getId(), comment.getPostId(), comment);
+    }
+
+    public static CommentChangedEvent updated(CommentResponse comment) {
+        return new CommentChangedEvent(Type.UPDATED, comment.getId(), comment.getPostId(), comment);
+    }
+
+    public static CommentChangedEvent deleted(Comment comment) {
+        return new CommentChangedEvent(Type.DELETED, comment.getId(), comment.getPostId(), null);
+    }
+}
@@ -0,0 +1,49 @@
+package com.blog.cutom_blog.events;
+
+import com.blog.cutom_blog.models.Post;
+import lombok.Getter;
+
+/**
+ * Published by {@link com.blog.cutom_blog.services.PostService} whenever a post is created, edited,
+ * changes status or is deleted. Listeners that depend on committed state should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)}.
+ */
+@Getter
+public class PostChangedEvent {
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final String postId;
+    private final String previousSlug;
+    private final String slug;
+    private final Post.PostStatus previousStatus;
+    private final Post.PostStatus status;
+
+    public PostChangedEvent(final Type type,
+                            final String postId,
+                            final String previousSlug,
+                            final String slug,
+                            final Post.PostStatus previousStatus,
+                            final Post.PostStatus status) {
+        this.type = type;
+        this.postId = postId;
+        this.previousSlug = previousSlug;
+        this.slug = slug;
+        this.previousStatus = previousStatus;
+        this.status = status;
+    }
+
+    public static PostChangedEvent created(Post post) {
+        return new PostChangedEvent(Type.CREATED, post.getId(), null, post.getSlug(), null, post.getStatus());
+    }
+
+    public static PostChangedEvent updated(Post post, String previousSlug, Post.PostStatus previousStatus) {
+        return new PostChangedEvent(Type.UPDATED, post.getId(), previousSlug, post.getSlug(), previousStatus, post.getStatus());
+    }
+
+    public static PostChangedEvent deleted(Post post) {
+        return new PostChangedEvent(Type.DELETED, post.getId(), post.getSlug(), null, post.getStatus(), null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.blog.cutom_blog.events;
+
+import lombok.Getter;
+
+/**
+ * Published by {@link com.blog.cutom_blog.services.SubscriberService} when an address subscribes, re-subscribes or
+ * unsubscribes. {@code previousActive} is null for a new subscriber.
+ */
+@Getter
+public class SubscriberChangedEvent {
+    private final String email;
+    private final Boolean previousActive;
+    private final boolean active;
+
+    public SubscriberChangedEvent(final String email, final Boolean previousActive, final boolean active) {
+        this.email = email;
+        this.previousActive = previousActive;
+        this.active = active;
+    }
+}
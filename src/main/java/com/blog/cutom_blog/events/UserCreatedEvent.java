@@ -0,0 +1,15 @@
+package com.blog.cutom_blog.events;
+
+import lombok.Getter;
+
+/**
+ * Published by {@link com.blog.cutom_blog.services.UserService} when an account is created.
+ */
+@Getter
+public class UserCreatedEvent {
+    private final String userId;
+
+    public UserCreatedEvent(final String userId) {
+        this.userId = userId;
+    }
+}
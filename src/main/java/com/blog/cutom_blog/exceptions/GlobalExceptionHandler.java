@@ -4,6 +4,7 @@ import com.blog.cutom_blog.dtos.ApiResponse;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -38,6 +39,26 @@ public class GlobalExceptionHandler {
             .body(response);
     }
 
+    /**
+     * Handle TooManyRequestsException; throttling is expected, so it is logged without a stack trace
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<?>> handleTooManyRequestsException(TooManyRequestsException ex) {
+        log.warn("Too many requests: {}", ex.getMessage());
+
+        ApiResponse<?> response = ApiResponse.builder()
+            .message(ex.getPrettyMessage() != null ? ex.getPrettyMessage() : ex.getMessage())
+            .data(null)
+            .build();
+
+        // Retry-After is in whole seconds, rounded up so a client honouring it is not throttled again
+        long retryAfterSeconds = Math.max((ex.getRetryAfter().toMillis() + 999) / 1000, 1);
+        return ResponseEntity
+            .status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(response);
+    }
+
     /**
      * Handle validation errors from @Valid annotations
      */
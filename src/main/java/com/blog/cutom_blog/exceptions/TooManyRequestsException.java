@@ -0,0 +1,26 @@
+package com.blog.cutom_blog.exceptions;
+
+import java.time.Duration;
+
+public class TooManyRequestsException extends WebApiException {
+    private static final long serialVersionUID = 2861046712093475521L;
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message, 429);
+        this.retryAfter = retryAfter;
+    }
+
+    public TooManyRequestsException(String message, String prettyMessage, Duration retryAfter) {
+        super(message, (Throwable)null, 429, false, prettyMessage, (ErrorCode)null);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * How long the client should wait before trying again, sent as the {@code Retry-After} header.
+     */
+    public Duration getRetryAfter() {
+        return this.retryAfter;
+    }
+}
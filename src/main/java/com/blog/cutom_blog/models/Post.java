@@ -54,6 +54,7 @@ public class Post extends Audit {
 
     private LocalDateTime publishedAt;
 
+    @Column(unique = true)
     private  String slug;
 
 
@@ -39,6 +39,9 @@ public class User extends Audit {
 
     private String roleId;
 
+    // Incremented to revoke all JWTs issued to this user
+    private int tokenVersion;
+
     @Builder
     public User(final String id,
                 final String username,
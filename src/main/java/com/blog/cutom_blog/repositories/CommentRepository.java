@@ -2,16 +2,64 @@ package com.blog.cutom_blog.repositories;
 
 
 import com.blog.cutom_blog.models.Comment;
+import com.blog.cutom_blog.repositories.projections.CommentThreadView;
+import com.blog.cutom_blog.repositories.projections.CommentView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, String> {
+    String VIEW_SELECT = "SELECT c.id AS id, c.content AS content, c.authorId AS authorId, " +
+        "COALESCE(u.username, 'Anonymous') AS authorName, c.postId AS postId, c.parentCommentId AS parentCommentId, " +
+        "c.createdAt AS createdAt, c.updatedAt AS updatedAt " +
+        "FROM Comment c LEFT JOIN User u ON u.id = c.authorId";
+
     Page<Comment> findByPostId(String postId, Pageable pageable);
 
+    @Query(value = VIEW_SELECT + " WHERE c.postId = :postId",
+        countQuery = "SELECT COUNT(c) FROM Comment c WHERE c.postId = :postId")
+    Page<CommentView> findViewsByPostId(@Param("postId") String postId, Pageable pageable);
+
+    /**
+     * One page of root comments, newest first, with every reply below them, in one round trip. Rows come back in
+     * thread order: each root, then its replies depth first, oldest first. A path of sort keys from the root is
+     * built while walking down, so ordering by it yields that order; {@code maxDepth} stops runaway parent chains.
+     */
+    @Query(value = "WITH RECURSIVE roots AS (" +
+        "  SELECT c.id, row_number() OVER (ORDER BY c.created_at DESC, c.id DESC) AS root_rank " +
+        "  FROM comments c WHERE c.post_id = :postId AND c.parent_comment_id IS NULL " +
+        "  ORDER BY c.created_at DESC, c.id DESC LIMIT :limit OFFSET :offset" +
+        "), thread AS (" +
+        "  SELECT c.id, c.content, c.author_id, c.post_id, c.parent_comment_id, c.created_at, c.updated_at, " +
+        "    0 AS depth, ARRAY[lpad(CAST(r.root_rank AS text), 10, '0')] AS path " +
+        "  FROM roots r JOIN comments c ON c.id = r.id " +
+        "  UNION ALL " +
+        "  SELECT c.id, c.content, c.author_id, c.post_id, c.parent_comment_id, c.created_at, c.updated_at, " +
+        "    t.depth + 1, t.path || CAST(to_char(c.created_at, 'YYYYMMDDHH24MISSUS') || c.id AS text) " +
+        "  FROM comments c JOIN thread t ON c.parent_comment_id = t.id " +
+        "  WHERE t.depth < :maxDepth" +
+        ") " +
+        "SELECT t.id AS \"id\", t.content AS \"content\", t.author_id AS \"authorId\", " +
+        "COALESCE(u.username, 'Anonymous') AS \"authorName\", t.post_id AS \"postId\", " +
+        "t.parent_comment_id AS \"parentCommentId\", t.created_at AS \"createdAt\", t.updated_at AS \"updatedAt\", " +
+        "t.depth AS \"depth\" " +
+        "FROM thread t LEFT JOIN users u ON u.id = t.author_id " +
+        "ORDER BY t.path",
+        nativeQuery = true)
+    List<CommentThreadView> findThreads(@Param("postId") String postId,
+                                        @Param("limit") int limit,
+                                        @Param("offset") long offset,
+                                        @Param("maxDepth") int maxDepth);
+
+    long countByPostIdAndParentCommentIdIsNull(String postId);
+
     Page<Comment> findByAuthorId(String authorId, Pageable pageable);
 
     Long countByPostId(String postId);
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.blog.cutom_blog.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to {@code site_counters} and the per-post comment counts in {@code post_stats}.
+ * <p>
+ * Writers that touch both take the {@code post_stats} row first, and reconciliation never holds locks on both
+ * tables at once, so the counter rows cannot deadlock.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CountersRepository {
+
+    private static final String ADD_SITE_COUNTER =
+        "INSERT INTO site_counters (name, value, updated_at) VALUES (?, ?, now()) " +
+        "ON CONFLICT (name) DO UPDATE SET value = site_counters.value + EXCLUDED.value, updated_at = EXCLUDED.updated_at";
+
+    private static final String ADD_COMMENT_COUNT =
+        "INSERT INTO post_stats (post_id, comment_count) VALUES (?, GREATEST(?, 0)) " +
+        "ON CONFLICT (post_id) DO UPDATE SET comment_count = GREATEST(post_stats.comment_count + ?, 0)";
+
+    // Counts from source; only rows that drifted are written
+    private static final String RECONCILE_SITE_COUNTERS =
+        "INSERT INTO site_counters (name, value, updated_at) " +
+        "SELECT v.name, v.value, now() " +
+        "FROM (SELECT COUNT(*) FILTER (WHERE status = 'DRAFT') AS draft, " +
+        "        COUNT(*) FILTER (WHERE status = 'PUBLISHED') AS published, " +
+        "        COUNT(*) FILTER (WHERE status = 'ARCHIVED') AS archived " +
+        "      FROM posts) p " +
+        "CROSS JOIN (SELECT COUNT(*) AS total FROM comments) c " +
+        "CROSS JOIN (SELECT COUNT(*) FILTER (WHERE active) AS active, COUNT(*) FILTER (WHERE NOT active) AS inactive " +
+        "            FROM subscribers) s " +
+        "CROSS JOIN (SELECT COUNT(*) AS total FROM users) u " +
+        "CROSS JOIN (SELECT CAST(COALESCE(SUM(view_count), 0) AS bigint) AS total FROM post_stats) pv " +
+        "CROSS JOIN LATERAL (VALUES ('" + SiteCounter.POSTS_DRAFT + "', p.draft), " +
+        "  ('" + SiteCounter.POSTS_PUBLISHED + "', p.published), ('" + SiteCounter.POSTS_ARCHIVED + "', p.archived), " +
+        "  ('" + SiteCounter.COMMENTS + "', c.total), " +
+        "  ('" + SiteCounter.SUBSCRIBERS_ACTIVE + "', s.active), ('" + SiteCounter.SUBSCRIBERS_INACTIVE + "', s.inactive), " +
+        "  ('" + SiteCounter.USERS + "', u.total), ('" + SiteCounter.VIEWS + "', pv.total)) AS v(name, value) " +
+        "ON CONFLICT (name) DO UPDATE SET value = EXCLUDED.value, updated_at = EXCLUDED.updated_at " +
+        "WHERE site_counters.value <> EXCLUDED.value";
+
+    private static final String RECONCILE_COMMENT_COUNTS =
+        "INSERT INTO post_stats (post_id, comment_count) " +
+        "SELECT p.id, COUNT(c.id) FROM posts p LEFT JOIN comments c ON c.post_id = p.id GROUP BY p.id " +
+        "ON CONFLICT (post_id) DO UPDATE SET comment_count = EXCLUDED.comment_count " +
+        "WHERE post_stats.comment_count <> EXCLUDED.comment_count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Names of the rows in {@code site_counters}.
+     */
+    public static final class SiteCounter {
+        public static final String POSTS_DRAFT = "posts.draft";
+        public static final String POSTS_PUBLISHED = "posts.published";
+        public static final String POSTS_ARCHIVED = "posts.archived";
+        public static final String COMMENTS = "comments";
+        public static final String SUBSCRIBERS_ACTIVE = "subscribers.active";
+        public static final String SUBSCRIBERS_INACTIVE = "subscribers.inactive";
+        public static final String USERS = "users";
+        public static final String VIEWS = "views";
+
+        private SiteCounter() {
+        }
+    }
+
+    public void addSiteCounter(String name, long delta) {
+        jdbcTemplate.update(ADD_SITE_COUNTER, name, delta);
+    }
+
+    public void addCommentCount(String postId, long delta) {
+        jdbcTemplate.update(ADD_COMMENT_COUNT, postId, delta, delta);
+    }
+
+    public Map<String, Long> findSiteCounters() {
+        Map<String, Long> counters = new HashMap<>();
+        jdbcTemplate.query("SELECT name, value FROM site_counters", resultSet -> {
+            counters.put(resultSet.getString("name"), resultSet.getLong("value"));
+        });
+        return counters;
+    }
+
+    public Map<String, Long> findCommentCounts(Collection<String> postIds) {
+        Map<String, Long> counts = new HashMap<>();
+        if (postIds.isEmpty()) {
+            return counts;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT post_id, comment_count FROM post_stats WHERE post_id = ANY (?)");
+            statement.setArray(1, connection.createArrayOf("varchar", postIds.toArray()));
+            return statement;
+        }, resultSet -> {
+            counts.put(resultSet.getString("post_id"), resultSet.getLong("comment_count"));
+        });
+        return counts;
+    }
+
+    /**
+     * Recomputes the site counters and returns how many had drifted. The counter rows are locked first, so writes
+     * racing with the recount wait for it and then apply their delta on top of a total that does not include them.
+     */
+    @Transactional
+    public int reconcileSiteCounters() {
+        jdbcTemplate.queryForList("SELECT name FROM site_counters FOR UPDATE", String.class);
+        return jdbcTemplate.update(RECONCILE_SITE_COUNTERS);
+    }
+
+    /**
+     * Recomputes every post's comment count and returns how many had drifted.
+     */
+    public int reconcileCommentCounts() {
+        return jdbcTemplate.update(RECONCILE_COMMENT_COUNTS);
+    }
+}
@@ -0,0 +1,51 @@
+package com.blog.cutom_blog.repositories;
+
+import com.blog.cutom_blog.repositories.CountersRepository.SiteCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+/**
+ * Every dashboard counter in one primary-key table read. {@code site_counters} is maintained by
+ * {@link com.blog.cutom_blog.services.CounterService}, so the cost does not depend on the size of the counted tables.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DashboardStatsRepository {
+
+    private final CountersRepository countersRepository;
+
+    public record DashboardStats(long totalPosts,
+                                 long publishedPosts,
+                                 long draftPosts,
+                                 long archivedPosts,
+                                 long totalComments,
+                                 long totalSubscribers,
+                                 long activeSubscribers,
+                                 long totalUsers,
+                                 long totalViews) {
+
+        public long inactiveSubscribers() {
+            return totalSubscribers - activeSubscribers;
+        }
+    }
+
+    public DashboardStats findStats() {
+        Map<String, Long> counters = countersRepository.findSiteCounters();
+        long draftPosts = counters.getOrDefault(SiteCounter.POSTS_DRAFT, 0L);
+        long publishedPosts = counters.getOrDefault(SiteCounter.POSTS_PUBLISHED, 0L);
+        long archivedPosts = counters.getOrDefault(SiteCounter.POSTS_ARCHIVED, 0L);
+        long activeSubscribers = counters.getOrDefault(SiteCounter.SUBSCRIBERS_ACTIVE, 0L);
+        return new DashboardStats(
+            draftPosts + publishedPosts + archivedPosts,
+            publishedPosts,
+            draftPosts,
+            archivedPosts,
+            counters.getOrDefault(SiteCounter.COMMENTS, 0L),
+            activeSubscribers + counters.getOrDefault(SiteCounter.SUBSCRIBERS_INACTIVE, 0L),
+            activeSubscribers,
+            counters.getOrDefault(SiteCounter.USERS, 0L),
+            counters.getOrDefault(SiteCounter.VIEWS, 0L));
+    }
+}
@@ -0,0 +1,142 @@
+package com.blog.cutom_blog.repositories;
+
+import com.blog.cutom_blog.enums.ENotificationType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access to {@code notification_outbox} and {@code notification_batches}. Rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so several nodes can dispatch without sending anything twice.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationOutboxRepository {
+    public static final String PENDING = "PENDING";
+    public static final String EXPANDED = "EXPANDED";
+    public static final String SENDING = "SENDING";
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private static final String CLAIM_PENDING_NOTIFICATION =
+        "SELECT id, post_id, type FROM notification_outbox WHERE status = 'PENDING' " +
+        "ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED";
+
+    // Claimed batches are leased rather than locked, so nothing is held open while Mailgun is called
+    private static final String CLAIM_DUE_BATCHES =
+        "UPDATE notification_batches b SET status = 'SENDING', attempts = b.attempts + 1, " +
+        "next_attempt_at = now() + ? * INTERVAL '1 second' " +
+        "FROM notification_outbox o " +
+        "WHERE o.id = b.outbox_id AND b.id IN (" +
+        "  SELECT id FROM notification_batches WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= now() " +
+        "  AND attempts < ? ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+        "RETURNING b.id, o.post_id, o.type, b.recipients, b.attempts";
+
+    // A batch still leased after its last attempt hung or lost its sender, and must not be sent again
+    private static final String FAIL_EXHAUSTED_BATCHES =
+        "UPDATE notification_batches SET status = 'FAILED', " +
+        "last_error = COALESCE(last_error, 'Lease ran out on the last attempt') " +
+        "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= now() AND attempts >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Notification(String id, String postId, ENotificationType type) {
+    }
+
+    public record Batch(String id, String postId, ENotificationType type, List<String> recipients, int attempts) {
+    }
+
+    /**
+     * Records a notification in the caller's transaction; a second one of the same type for the same post is ignored.
+     */
+    public void enqueue(String postId, ENotificationType type) {
+        jdbcTemplate.update(
+            "INSERT INTO notification_outbox (id, post_id, type, status, created_at) VALUES (?, ?, ?, 'PENDING', now()) " +
+            "ON CONFLICT (post_id, type) DO NOTHING",
+            UUID.randomUUID().toString(), postId, type.name());
+    }
+
+    /**
+     * Locks the oldest notification not yet expanded into batches; must be called in a transaction.
+     */
+    public Optional<Notification> claimPendingNotification() {
+        return jdbcTemplate.query(CLAIM_PENDING_NOTIFICATION, (resultSet, rowNum) -> new Notification(
+                resultSet.getString("id"),
+                resultSet.getString("post_id"),
+                ENotificationType.valueOf(resultSet.getString("type"))))
+            .stream()
+            .findFirst();
+    }
+
+    public void insertBatch(String notificationId, List<String> recipients) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO notification_batches (id, outbox_id, recipients, status, created_at) " +
+                "VALUES (?, ?, ?, 'PENDING', now())");
+            statement.setString(1, UUID.randomUUID().toString());
+            statement.setString(2, notificationId);
+            statement.setArray(3, connection.createArrayOf("varchar", recipients.toArray()));
+            return statement;
+        });
+    }
+
+    public void updateNotificationStatus(String notificationId, String status) {
+        jdbcTemplate.update("UPDATE notification_outbox SET status = ?, updated_at = now() WHERE id = ?",
+            status, notificationId);
+    }
+
+    /**
+     * Leases up to {@code limit} due batches to this node; a batch whose lease runs out is due again while it has
+     * attempts left.
+     */
+    public List<Batch> claimDueBatches(int limit, Duration lease, int maxAttempts) {
+        return jdbcTemplate.query(CLAIM_DUE_BATCHES, (resultSet, rowNum) -> {
+            Array recipients = resultSet.getArray("recipients");
+            return new Batch(
+                resultSet.getString("id"),
+                resultSet.getString("post_id"),
+                ENotificationType.valueOf(resultSet.getString("type")),
+                Arrays.asList((String[]) recipients.getArray()),
+                resultSet.getInt("attempts"));
+        }, lease.toSeconds(), maxAttempts, limit);
+    }
+
+    /**
+     * Marks due batches that have no attempts left as FAILED, returning how many there were.
+     */
+    public int failExhaustedBatches(int maxAttempts) {
+        return jdbcTemplate.update(FAIL_EXHAUSTED_BATCHES, maxAttempts);
+    }
+
+    public void markSent(String batchId) {
+        jdbcTemplate.update(
+            "UPDATE notification_batches SET status = 'SENT', sent_at = now(), last_error = NULL WHERE id = ?",
+            batchId);
+    }
+
+    public void scheduleRetry(String batchId, Duration delay, String error) {
+        jdbcTemplate.update(
+            "UPDATE notification_batches SET status = 'PENDING', next_attempt_at = now() + ? * INTERVAL '1 second', " +
+            "last_error = ? WHERE id = ?",
+            delay.toSeconds(), error, batchId);
+    }
+
+    public void markFailed(String batchId, String error) {
+        jdbcTemplate.update("UPDATE notification_batches SET status = 'FAILED', last_error = ? WHERE id = ?",
+            error, batchId);
+    }
+
+    public void markCancelled(String batchId, String reason) {
+        jdbcTemplate.update("UPDATE notification_batches SET status = 'CANCELLED', last_error = ? WHERE id = ?",
+            reason, batchId);
+    }
+}
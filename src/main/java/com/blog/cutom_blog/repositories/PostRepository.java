@@ -1,40 +1,115 @@
 package com.blog.cutom_blog.repositories;
 
 
+import com.blog.cutom_blog.enums.ECategory;
 import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.repositories.projections.PostFeedVersionView;
+import com.blog.cutom_blog.repositories.projections.PostSearchHitView;
+import com.blog.cutom_blog.repositories.projections.PostSummaryView;
+import com.blog.cutom_blog.repositories.projections.PostVersionView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, String> {
+    // Posts without an excerpt bring a bounded prefix of the body instead, so list pages never load the full TEXT
+    // column; the prefix is still HTML and is turned into plain text before it is shown
+    String SUMMARY_SELECT = "SELECT p.id AS id, p.title AS title, p.subtitle AS subtitle, p.excerpt AS excerpt, " +
+        "CASE WHEN p.excerpt IS NULL THEN SUBSTRING(p.content, 1, 1000) ELSE NULL END AS contentPreview, p.slug AS slug, " +
+        "p.featuredImage AS featuredImage, p.status AS status, p.authorId AS authorId, p.category AS category, " +
+        "p.createdAt AS createdAt, p.updatedAt AS updatedAt, p.publishedAt AS publishedAt, " +
+        "p.metaTitle AS metaTitle, p.metaDescription AS metaDescription";
+
     Optional<Post> findById(String id);
 
     Page<Post> findByStatus(Post.PostStatus status, Pageable pageable);
 
+    // Keyset page by id, so posts committed while a scan runs cannot shift later pages
+    @Query("SELECT p FROM Post p WHERE p.status = :status AND p.id > :afterId ORDER BY p.id")
+    List<Post> findByStatusAfter(@Param("status") Post.PostStatus status, @Param("afterId") String afterId,
+                                 Pageable pageable);
+
     // Removed: findByStatusAndCategoryId - categories are now enums
 
 //    Page<Post> findByStatusAndTagId(Post.PostStatus status, String tagId, Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.status = :status AND (p.title LIKE %:keyword% OR p.content LIKE %:keyword%)")
-    Page<Post> findByStatusAndTitleContainingOrContentContaining(@Param("status") Post.PostStatus status,
-                                                                 @Param("keyword") String keyword,
-                                                                 Pageable pageable);
-
     Optional<Post> findBySlug(String slug);
 
     Boolean existsBySlug(String slug);
 
+    @Query("SELECT p.id AS id, p.createdAt AS createdAt, p.updatedAt AS updatedAt FROM Post p WHERE p.slug = :slug")
+    Optional<PostVersionView> findVersionBySlug(@Param("slug") String slug);
+
+    @Query("SELECT p.id AS id, p.createdAt AS createdAt, p.updatedAt AS updatedAt FROM Post p WHERE p.id = :id")
+    Optional<PostVersionView> findVersionById(@Param("id") String id);
+
+    @Query("SELECT COUNT(p) AS postCount, MAX(COALESCE(p.updatedAt, p.createdAt)) AS lastModified " +
+        "FROM Post p WHERE p.status = :status")
+    PostFeedVersionView findFeedVersion(@Param("status") Post.PostStatus status);
+
     Page<Post> findByAuthorId(String authorId, Pageable pageable);
 
     @Query("SELECT COUNT(p) FROM Post p WHERE p.status = :status")
     Long countByStatus(@Param("status") Post.PostStatus status);
 
-    Page<Post> findByStatusIn(List<Post.PostStatus> statuses, Pageable pageable);
-}
+    @Query(value = SUMMARY_SELECT + " FROM Post p WHERE p.status = :status",
+        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.status = :status")
+    Page<PostSummaryView> findSummariesByStatus(@Param("status") Post.PostStatus status, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + " FROM Post p WHERE p.status = :status AND p.category = :category",
+        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.status = :status AND p.category = :category")
+    Page<PostSummaryView> findSummariesByStatusAndCategory(@Param("status") Post.PostStatus status,
+                                                           @Param("category") ECategory category,
+                                                           Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + " FROM Post p WHERE p.status IN :statuses",
+        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.status IN :statuses")
+    Page<PostSummaryView> findSummariesByStatusIn(@Param("statuses") List<Post.PostStatus> statuses, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " FROM Post p WHERE p.status = :status AND p.publishedAt IS NOT NULL " +
+        "ORDER BY p.publishedAt DESC, p.id DESC")
+    Slice<PostSummaryView> findSummaryFeed(@Param("status") Post.PostStatus status, Pageable pageable);
+
+    // The redundant publishedAt <= bound lets Postgres range-scan idx_posts_status_published_at_id
+    @Query(SUMMARY_SELECT + " FROM Post p WHERE p.status = :status AND p.publishedAt <= :publishedAt " +
+        "AND (p.publishedAt < :publishedAt OR p.id < :id) ORDER BY p.publishedAt DESC, p.id DESC")
+    Slice<PostSummaryView> findSummaryFeedAfter(@Param("status") Post.PostStatus status,
+                                                @Param("publishedAt") LocalDateTime publishedAt,
+                                                @Param("id") String id,
+                                                Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " FROM Post p WHERE p.id IN :ids")
+    List<PostSummaryView> findSummariesByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * Ranked full-text search over the generated search_vector column (see V16). The query must already be in
+     * to_tsquery syntax. Headlines are computed in the outer query so only the returned page pays for them.
+     */
+    @Query(value = "SELECT hit.id AS id, hit.rank AS rank, " +
+        "ts_headline('english', regexp_replace(coalesce(p.excerpt, '') || ' ' || p.content, '<[^>]+>', ' ', 'g'), " +
+        "to_tsquery('english', :query), 'StartSel=<mark>, StopSel=</mark>, MaxWords=35, MinWords=15, MaxFragments=2') AS highlight " +
+        "FROM (SELECT p.id, CAST(ts_rank(p.search_vector, to_tsquery('english', :query)) AS float8) AS rank, p.published_at " +
+        "      FROM posts p WHERE p.status = :status AND p.search_vector @@ to_tsquery('english', :query) " +
+        "      ORDER BY rank DESC, p.published_at DESC, p.id LIMIT :limit OFFSET :offset) hit " +
+        "JOIN posts p ON p.id = hit.id " +
+        "ORDER BY hit.rank DESC, hit.published_at DESC, hit.id",
+        nativeQuery = true)
+    List<PostSearchHitView> searchFullText(@Param("status") String status,
+                                           @Param("query") String query,
+                                           @Param("limit") int limit,
+                                           @Param("offset") long offset);
+
+    @Query(value = "SELECT COUNT(*) FROM posts p WHERE p.status = :status AND p.search_vector @@ to_tsquery('english', :query)",
+        nativeQuery = true)
+    long countFullText(@Param("status") String status, @Param("query") String query);
+}
\ No newline at end of file
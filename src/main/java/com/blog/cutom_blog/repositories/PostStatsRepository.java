@@ -0,0 +1,77 @@
+package com.blog.cutom_blog.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to {@code post_stats}; it has no entity because rows are only ever bulk-upserted.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PostStatsRepository {
+
+    // One round trip for the whole batch, which also adds the views that were applied to the site-wide total.
+    // Ids of posts that no longer exist are dropped by the join.
+    private static final String ADD_VIEWS =
+        "WITH d AS (SELECT * FROM unnest(CAST(? AS varchar[]), CAST(? AS bigint[])) AS d(post_id, delta)), " +
+        "applied AS (" +
+        "  INSERT INTO post_stats (post_id, view_count, updated_at) " +
+        "  SELECT p.id, d.delta, now() FROM d JOIN posts p ON p.id = d.post_id " +
+        "  ON CONFLICT (post_id) DO UPDATE SET view_count = post_stats.view_count + EXCLUDED.view_count, " +
+        "  updated_at = EXCLUDED.updated_at " +
+        "  RETURNING post_id, view_count), " +
+        "counted AS (" +
+        "  INSERT INTO site_counters (name, value, updated_at) " +
+        "  SELECT '" + CountersRepository.SiteCounter.VIEWS + "', COALESCE(SUM(d.delta), 0), now() " +
+        "  FROM d JOIN applied a ON a.post_id = d.post_id " +
+        "  ON CONFLICT (name) DO UPDATE SET value = site_counters.value + EXCLUDED.value, updated_at = EXCLUDED.updated_at) " +
+        "SELECT post_id, view_count FROM applied";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the view deltas and returns the new totals, which include views flushed by other nodes.
+     */
+    public Map<String, Long> addViews(Map<String, Long> deltas) {
+        String[] postIds = deltas.keySet().toArray(new String[0]);
+        Long[] counts = new Long[postIds.length];
+        for (int i = 0; i < postIds.length; i++) {
+            counts[i] = deltas.get(postIds[i]);
+        }
+
+        Map<String, Long> totals = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ADD_VIEWS);
+            Array ids = connection.createArrayOf("varchar", postIds);
+            Array values = connection.createArrayOf("bigint", counts);
+            statement.setArray(1, ids);
+            statement.setArray(2, values);
+            return statement;
+        }, resultSet -> {
+            totals.put(resultSet.getString("post_id"), resultSet.getLong("view_count"));
+        });
+        return totals;
+    }
+
+    /**
+     * Ids of the posts views can be recorded for.
+     */
+    public List<String> findPublishedPostIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM posts WHERE status = 'PUBLISHED'", String.class);
+    }
+
+    public Map<String, Long> findAllViewCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT post_id, view_count FROM post_stats", resultSet -> {
+            counts.put(resultSet.getString("post_id"), resultSet.getLong("view_count"));
+        });
+        return counts;
+    }
+}
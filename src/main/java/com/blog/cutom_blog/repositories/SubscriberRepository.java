@@ -1,7 +1,13 @@
 package com.blog.cutom_blog.repositories;
 
 import com.blog.cutom_blog.models.Subscriber;
+import com.blog.cutom_blog.repositories.projections.SubscriberEmailView;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,4 +22,12 @@ public interface SubscriberRepository extends JpaRepository<Subscriber, String>
     Long countByActive(Boolean active);
 
     List<Subscriber> findByActive(boolean active);
+
+    // Keyset page over idx_subscribers_active_id; fetched in one round trip and without managed entities
+    @Query("SELECT s.id AS id, s.email AS email FROM Subscriber s WHERE s.active = true AND s.id > :afterId ORDER BY s.id")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    List<SubscriberEmailView> findActiveEmailsAfter(@Param("afterId") String afterId, Pageable pageable);
 }
\ No newline at end of file
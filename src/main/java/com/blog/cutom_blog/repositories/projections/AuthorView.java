@@ -0,0 +1,16 @@
+package com.blog.cutom_blog.repositories.projections;
+
+/**
+ * Public identity of a user, as shown next to their posts and comments.
+ */
+public interface AuthorView {
+    String getId();
+
+    String getUsername();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+}
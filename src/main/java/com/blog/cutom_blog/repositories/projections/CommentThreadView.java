@@ -0,0 +1,8 @@
+package com.blog.cutom_blog.repositories.projections;
+
+/**
+ * A comment of a thread, with how deep it is nested below its root comment (roots are at depth 0).
+ */
+public interface CommentThreadView extends CommentView {
+    Integer getDepth();
+}
@@ -0,0 +1,24 @@
+package com.blog.cutom_blog.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * A comment joined with its author's username, so a page of comments is one query.
+ */
+public interface CommentView {
+    String getId();
+
+    String getContent();
+
+    String getAuthorId();
+
+    String getAuthorName();
+
+    String getPostId();
+
+    String getParentCommentId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
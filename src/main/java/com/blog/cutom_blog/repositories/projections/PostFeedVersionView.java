@@ -0,0 +1,12 @@
+package com.blog.cutom_blog.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of a post listing: it changes whenever a post in it is added, edited or removed.
+ */
+public interface PostFeedVersionView {
+    Long getPostCount();
+
+    LocalDateTime getLastModified();
+}
@@ -0,0 +1,12 @@
+package com.blog.cutom_blog.repositories.projections;
+
+/**
+ * One ranked full-text match: the post id, its ts_rank score and a ts_headline snippet.
+ */
+public interface PostSearchHitView {
+    String getId();
+
+    Double getRank();
+
+    String getHighlight();
+}
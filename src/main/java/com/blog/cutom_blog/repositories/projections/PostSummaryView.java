@@ -0,0 +1,44 @@
+package com.blog.cutom_blog.repositories.projections;
+
+import com.blog.cutom_blog.enums.ECategory;
+import com.blog.cutom_blog.models.Post;
+
+import java.time.LocalDateTime;
+
+/**
+ * Column subset of {@link Post} used by list endpoints. Never selects the whole {@code content} body.
+ */
+public interface PostSummaryView {
+    String getId();
+
+    String getTitle();
+
+    String getSubtitle();
+
+    String getExcerpt();
+
+    /**
+     * Start of the raw HTML body, only selected for posts without an excerpt.
+     */
+    String getContentPreview();
+
+    String getSlug();
+
+    String getFeaturedImage();
+
+    Post.PostStatus getStatus();
+
+    String getAuthorId();
+
+    ECategory getCategory();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getPublishedAt();
+
+    String getMetaTitle();
+
+    String getMetaDescription();
+}
@@ -0,0 +1,18 @@
+package com.blog.cutom_blog.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Just enough of a post to build HTTP validators without loading it.
+ */
+public interface PostVersionView {
+    String getId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    default LocalDateTime getLastModified() {
+        return getUpdatedAt() != null ? getUpdatedAt() : getCreatedAt();
+    }
+}
@@ -0,0 +1,10 @@
+package com.blog.cutom_blog.repositories.projections;
+
+/**
+ * Id and address of a subscriber, which is all a notification fan-out needs.
+ */
+public interface SubscriberEmailView {
+    String getId();
+
+    String getEmail();
+}
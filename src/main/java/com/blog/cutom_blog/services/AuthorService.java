@@ -0,0 +1,58 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
+import com.blog.cutom_blog.repositories.UserRepository;
+import com.blog.cutom_blog.repositories.projections.AuthorView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Authors of posts and comments by user id, shared by post and comment assembly. Authors missing from the cache are
+ * loaded together in one query. No endpoint edits a user's name or email, so a short expiry, which also bounds how
+ * long a direct database edit goes unseen, is all the invalidation they need.
+ */
+@Service
+public class AuthorService {
+    private final UserRepository userRepository;
+    private final Cache<String, AuthorView> authors;
+
+    public AuthorService(UserRepository userRepository, CacheRegistry cacheRegistry) {
+        this.userRepository = userRepository;
+        this.authors = cacheRegistry.register("authors", Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .recordStats()
+            .build());
+    }
+
+    public Optional<AuthorView> getAuthor(String userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(getAuthors(Set.of(userId)).get(userId));
+    }
+
+    /**
+     * Authors keyed by id; ids without a user are left out.
+     */
+    public Map<String, AuthorView> getAuthors(Collection<String> userIds) {
+        Set<String> ids = userIds.stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return authors.getAll(ids, missing -> userRepository.findAuthorsByIdIn(Set.copyOf(missing)).stream()
+            .collect(Collectors.toMap(AuthorView::getId, Function.identity())));
+    }
+}
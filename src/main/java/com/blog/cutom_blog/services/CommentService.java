@@ -1,32 +1,105 @@
 package com.blog.cutom_blog.services;
 
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
 import com.blog.cutom_blog.dtos.CommentRequest;
 import com.blog.cutom_blog.dtos.CommentResponse;
+import com.blog.cutom_blog.events.CommentChangedEvent;
+import com.blog.cutom_blog.exceptions.ConflictException;
 import com.blog.cutom_blog.exceptions.NotFoundException;
 import com.blog.cutom_blog.models.Comment;
-import com.blog.cutom_blog.models.User;
 import com.blog.cutom_blog.repositories.CommentRepository;
-import com.blog.cutom_blog.repositories.UserRepository;
+import com.blog.cutom_blog.repositories.projections.AuthorView;
+import com.blog.cutom_blog.repositories.projections.CommentThreadView;
+import com.blog.cutom_blog.repositories.projections.CommentView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CommentService {
+    // Deeper replies are not returned; far beyond any nesting the UI can show
+    private static final int MAX_THREAD_DEPTH = 100;
+    // Long enough to cover double submits and client retries, short enough that reposting on purpose still works
+    private static final Duration DUPLICATE_WINDOW = Duration.ofSeconds(10);
+    // How long a resubmission waits for the first submission to commit before it is turned away
+    private static final Duration DUPLICATE_WAIT = Duration.ofSeconds(5);
+
     private final CommentRepository commentRepository;
-    private final UserRepository userRepository;
+    private final AuthorService authorService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheRegistry cacheRegistry;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    // Comments created in the last few seconds, keyed by what was submitted. A submission claims its key with an
+    // incomplete future before writing, so concurrent copies of it wait for that one instead of racing it.
+    private Cache<String, CompletableFuture<CommentResponse>> recentComments;
+
+    @PostConstruct
+    public void init() {
+        recentComments = cacheRegistry.register("recentComments", Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(DUPLICATE_WINDOW)
+            .recordStats()
+            .build());
+    }
+
+    /**
+     * Creates a comment. Submitting the same comment again within a few seconds returns the one already created
+     * instead of writing a duplicate. Copies wait for the first submission before any transaction is opened, so a
+     * burst of them does not hold pool connections, and a copy still waiting when the first has not committed is
+     * rejected with a conflict rather than written alongside it.
+     */
     public CommentResponse createComment(String postId, CommentRequest request, String userId) {
         log.info("Creating comment for post: {} by user: {}", postId, userId);
 
-        User user = userRepository.findById(userId)
+        String key = submissionKey(userId, postId, request.getParentCommentId(), request.getContent());
+        CompletableFuture<CommentResponse> claim = new CompletableFuture<>();
+        CompletableFuture<CommentResponse> existing;
+        while ((existing = recentComments.asMap().putIfAbsent(key, claim)) != null) {
+            CommentResponse duplicate = await(existing);
+            if (duplicate != null) {
+                log.info("Comment by user: {} is a resubmission of {}, not creating it again", userId, duplicate.getId());
+                return duplicate;
+            }
+            // The first submission failed, so this one is written after all
+            recentComments.asMap().remove(key, existing);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> insertComment(postId, request, userId));
+        } catch (RuntimeException e) {
+            release(key);
+            throw e;
+        }
+    }
+
+    private CommentResponse insertComment(String postId, CommentRequest request, String userId) {
+        AuthorView author = authorService.getAuthor(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
 
         Comment comment = Comment.builder()
@@ -39,21 +112,60 @@ public class CommentService {
         Comment savedComment = commentRepository.save(comment);
         log.info("Comment created successfully with id: {}", savedComment.getId());
 
-        return mapToResponse(savedComment, user.getUsername());
+        CommentResponse response = mapToResponse(savedComment, author.getUsername());
+        eventPublisher.publishEvent(CommentChangedEvent.created(response));
+        return response;
     }
 
     @Transactional(readOnly = true)
     public Page<CommentResponse> getCommentsByPostId(String postId, Pageable pageable) {
         log.info("Fetching comments for post: {}", postId);
         
-        Page<Comment> comments = commentRepository.findByPostId(postId, pageable);
-        
-        return comments.map(comment -> {
-            String authorName = userRepository.findById(comment.getAuthorId())
-                    .map(User::getUsername)
-                    .orElse("Anonymous");
-            return mapToResponse(comment, authorName);
-        });
+        // Author names come from the same query, so a page costs the same whatever its size
+        Page<CommentView> comments = commentRepository.findViewsByPostId(postId, pageable);
+
+        return comments.map(this::mapToResponse);
+    }
+
+    /**
+     * A page of root comments, newest first, each with its whole reply tree nested under it.
+     */
+    @Transactional(readOnly = true)
+    public Page<CommentResponse> getCommentThreadsByPostId(String postId, Pageable pageable) {
+        log.info("Fetching comment threads for post: {}", postId);
+
+        List<CommentThreadView> rows = commentRepository.findThreads(
+            postId, pageable.getPageSize(), pageable.getOffset(), MAX_THREAD_DEPTH);
+
+        // Rows arrive in thread order, so every parent is seen before its replies
+        Map<String, CommentResponse> byId = new HashMap<>();
+        List<CommentResponse> roots = new ArrayList<>();
+        for (CommentThreadView row : rows) {
+            CommentResponse comment = mapToResponse(row);
+            comment.setDepth(row.getDepth());
+            comment.setReplies(new ArrayList<>());
+            byId.put(comment.getId(), comment);
+
+            CommentResponse parent = row.getDepth() > 0 ? byId.get(row.getParentCommentId()) : null;
+            if (parent != null) {
+                parent.getReplies().add(comment);
+            } else {
+                roots.add(comment);
+            }
+        }
+        roots.forEach(CommentService::countReplies);
+
+        long totalRoots = commentRepository.countByPostIdAndParentCommentIdIsNull(postId);
+        return new PageImpl<>(roots, pageable, totalRoots);
+    }
+
+    private static int countReplies(CommentResponse comment) {
+        int replyCount = 0;
+        for (CommentResponse reply : comment.getReplies()) {
+            replyCount += 1 + countReplies(reply);
+        }
+        comment.setReplyCount(replyCount);
+        return replyCount;
     }
 
     @Transactional
@@ -68,6 +180,7 @@ public class CommentService {
         }
         
         commentRepository.delete(comment);
+        eventPublisher.publishEvent(CommentChangedEvent.deleted(comment));
         log.info("Comment deleted successfully: {}", commentId);
     }
 
@@ -86,11 +199,88 @@ public class CommentService {
         Comment updatedComment = commentRepository.save(comment);
         log.info("Comment updated successfully: {}", commentId);
 
-        String authorName = userRepository.findById(comment.getAuthorId())
-                .map(User::getUsername)
+        String authorName = authorService.getAuthor(comment.getAuthorId())
+                .map(AuthorView::getUsername)
                 .orElse("Anonymous");
 
-        return mapToResponse(updatedComment, authorName);
+        CommentResponse response = mapToResponse(updatedComment, authorName);
+        eventPublisher.publishEvent(CommentChangedEvent.updated(response));
+        return response;
+    }
+
+    /**
+     * Only committed comments are remembered, so a failed submission can be retried right away.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentChanged(CommentChangedEvent event) {
+        if (event.getType() == CommentChangedEvent.Type.CREATED) {
+            CommentResponse comment = event.getComment();
+            recentComments.asMap().computeIfAbsent(submissionKey(comment), key -> new CompletableFuture<>())
+                .complete(comment);
+        } else {
+            // An edited or deleted comment no longer answers for what was submitted
+            recentComments.asMap().values().removeIf(future -> {
+                CommentResponse comment = future.getNow(null);
+                return comment != null && comment.getId().equals(event.getCommentId());
+            });
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onCommentRolledBack(CommentChangedEvent event) {
+        if (event.getType() == CommentChangedEvent.Type.CREATED) {
+            release(submissionKey(event.getComment()));
+        }
+    }
+
+    /**
+     * Drops the claim of a submission that was not written and wakes up any copies of it waiting on the claim.
+     */
+    private void release(String key) {
+        CompletableFuture<CommentResponse> claim = recentComments.asMap().remove(key);
+        if (claim != null) {
+            claim.complete(null);
+        }
+    }
+
+    /**
+     * The comment the first submission created, or null when it failed and this one should be written instead.
+     */
+    private static CommentResponse await(CompletableFuture<CommentResponse> claim) {
+        try {
+            return claim.get(DUPLICATE_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while the same comment was being created");
+        } catch (TimeoutException e) {
+            // The first submission may still commit, so writing this one could duplicate it
+            throw new ConflictException("The same comment is still being created",
+                "This comment is already being posted, please refresh in a moment");
+        }
+    }
+
+    private static String submissionKey(CommentResponse comment) {
+        return submissionKey(comment.getAuthorId(), comment.getPostId(), comment.getParentCommentId(),
+            comment.getContent());
+    }
+
+    private static String submissionKey(String userId, String postId, String parentCommentId, String content) {
+        return userId + '\n' + postId + '\n' + Objects.toString(parentCommentId, "") + '\n' + content;
+    }
+
+    private CommentResponse mapToResponse(CommentView comment) {
+        return CommentResponse.builder()
+                .id(comment.getId())
+                .content(comment.getContent())
+                .authorId(comment.getAuthorId())
+                .authorName(comment.getAuthorName())
+                .postId(comment.getPostId())
+                .parentCommentId(comment.getParentCommentId())
+                .createdAt(comment.getCreatedAt())
+                .updatedAt(comment.getUpdatedAt())
+                .build();
     }
 
     private CommentResponse mapToResponse(Comment comment, String authorName) {
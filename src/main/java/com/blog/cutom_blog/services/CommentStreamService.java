@@ -0,0 +1,251 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.events.CommentChangedEvent;
+import com.blog.cutom_blog.exceptions.NotFoundException;
+import com.blog.cutom_blog.exceptions.ServiceUnavailableException;
+import com.blog.cutom_blog.repositories.PostRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live comment stream of each post over Server-Sent Events.
+ * <p>
+ * Open streams are async requests, so an idle one holds no servlet thread, only an entry in a per-post registry.
+ * A committed comment change is serialized once and queued on every stream of its post; each stream drains its own
+ * small queue on a shared bounded pool, so one slow reader only delays itself. When a reader falls behind, its
+ * oldest queued events are dropped and the client catches up from the comments endpoint. A periodic heartbeat keeps
+ * proxies from closing idle streams and finds clients that went away without closing theirs.
+ */
+@Slf4j
+@Service
+public class CommentStreamService {
+    private static final String EVENT_NAME = "comment";
+    // Sent on connect so clients reconnect after this long when the stream drops
+    private static final long RECONNECT_DELAY_MS = 5_000;
+
+    private final ObjectMapper objectMapper;
+    private final PostRepository postRepository;
+    private final Map<String, Set<Connection>> connectionsByPost = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder eventsDropped = new LongAdder();
+    private final int maxConnections;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor senders;
+
+    public CommentStreamService(ObjectMapper objectMapper,
+                                PostRepository postRepository,
+                                @Value("${app.comments.stream.max-connections:10000}") int maxConnections,
+                                @Value("${app.comments.stream.buffer-size:32}") int bufferSize,
+                                @Value("${app.comments.stream.timeout:PT30M}") Duration timeout,
+                                @Value("${app.comments.stream.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.postRepository = postRepository;
+        this.maxConnections = maxConnections;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeout.toMillis();
+        // A connection is queued at most once while it drains, so the queue only fills up if every stream is busy
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(maxConnections), new CustomizableThreadFactory("comment-stream-"));
+    }
+
+    /**
+     * Opens a stream of the comment changes of a post. The emitter is completed when the client goes away, the
+     * stream times out or the application shuts down.
+     */
+    public SseEmitter subscribe(String postId) {
+        // Streams are opened anonymously, so only real posts get a registry entry
+        if (!postRepository.existsById(postId)) {
+            throw new NotFoundException("Post not found with id: " + postId);
+        }
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open comment streams",
+                "Live comments are unavailable right now, please try again later.");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(postId, emitter);
+        connectionsByPost.compute(postId, (key, connections) -> {
+            Set<Connection> set = connections != null ? connections : ConcurrentHashMap.newKeySet();
+            set.add(connection);
+            return set;
+        });
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(error -> connection.close());
+
+        connection.offer(SseEmitter.event().reconnectTime(RECONNECT_DELAY_MS).comment("connected").build());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentChanged(CommentChangedEvent event) {
+        Set<Connection> connections = connectionsByPost.get(event.getPostId());
+        if (connections == null || connections.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.getType());
+        payload.put("commentId", event.getCommentId());
+        payload.put("comment", event.getComment());
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize comment event {}: {}", event.getCommentId(), e.getMessage());
+            return;
+        }
+        // Built once and shared: the built parts are immutable, the builder is not
+        Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event()
+            .id(event.getCommentId())
+            .name(EVENT_NAME)
+            .data(json, MediaType.APPLICATION_JSON)
+            .build();
+        connections.forEach(connection -> connection.offer(message));
+    }
+
+    @Scheduled(fixedRateString = "${app.comments.stream.heartbeat-interval:PT15S}")
+    public void sendHeartbeats() {
+        if (connectionCount.get() == 0) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        connectionsByPost.values().forEach(connections -> connections.forEach(connection -> connection.offer(heartbeat)));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("openStreams", connectionCount.get());
+        stats.put("postsWithStreams", connectionsByPost.size());
+        stats.put("eventsSent", eventsSent.sum());
+        stats.put("eventsDropped", eventsDropped.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        connectionsByPost.values().forEach(connections -> connections.forEach(Connection::complete));
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void remove(Connection connection) {
+        AtomicBoolean removed = new AtomicBoolean();
+        connectionsByPost.computeIfPresent(connection.postId, (key, connections) -> {
+            removed.set(connections.remove(connection));
+            return connections.isEmpty() ? null : connections;
+        });
+        if (removed.get()) {
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * One open stream with its pending events. At most one sender drains it at a time, so events reach the client
+     * in order.
+     */
+    private final class Connection {
+        private final String postId;
+        private final SseEmitter emitter;
+        // Guarded by this
+        private final Deque<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Connection(String postId, SseEmitter emitter) {
+            this.postId = postId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() >= bufferSize) {
+                    pending.pollFirst();
+                    eventsDropped.increment();
+                }
+                pending.addLast(message);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Left queued for the next event or heartbeat to pick up
+                synchronized (this) {
+                    draining = false;
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> message;
+                synchronized (this) {
+                    message = pending.pollFirst();
+                    if (message == null || closed) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(message);
+                    eventsSent.increment();
+                } catch (Exception e) {
+                    // The client went away; completing the emitter releases its async request
+                    complete();
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            remove(this);
+        }
+
+        private void complete() {
+            close();
+            try {
+                emitter.complete();
+            } catch (Exception e) {
+                log.debug("Comment stream of post {} was already closed: {}", postId, e.getMessage());
+            }
+        }
+    }
+}
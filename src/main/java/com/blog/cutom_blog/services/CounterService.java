@@ -0,0 +1,116 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.events.CommentChangedEvent;
+import com.blog.cutom_blog.events.PostChangedEvent;
+import com.blog.cutom_blog.events.SubscriberChangedEvent;
+import com.blog.cutom_blog.events.UserCreatedEvent;
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.repositories.CountersRepository;
+import com.blog.cutom_blog.repositories.CountersRepository.SiteCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Incrementally maintained counters behind the dashboard and the per-post comment counts.
+ * <p>
+ * Domain events are applied just before their transaction commits, so a counter changes if and only if the change
+ * it counts does. Anything that bypasses the services (manual SQL, cascades) is corrected by a periodic recount
+ * from source, which also runs on startup to fill the tables the first time.
+ */
+@Slf4j
+@Service
+public class CounterService {
+
+    private final CountersRepository countersRepository;
+
+    public CounterService(CountersRepository countersRepository) {
+        this.countersRepository = countersRepository;
+    }
+
+    public Map<String, Long> getSiteCounters() {
+        return countersRepository.findSiteCounters();
+    }
+
+    public Map<String, Long> getCommentCounts(Collection<String> postIds) {
+        return countersRepository.findCommentCounts(postIds);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.getPreviousStatus() == event.getStatus()) {
+            return;
+        }
+        if (event.getPreviousStatus() != null) {
+            countersRepository.addSiteCounter(postCounter(event.getPreviousStatus()), -1);
+        }
+        if (event.getStatus() != null) {
+            countersRepository.addSiteCounter(postCounter(event.getStatus()), 1);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCommentChanged(CommentChangedEvent event) {
+        if (event.getType() == CommentChangedEvent.Type.UPDATED) {
+            return;
+        }
+        long delta = event.getType() == CommentChangedEvent.Type.CREATED ? 1 : -1;
+        if (event.getPostId() != null) {
+            countersRepository.addCommentCount(event.getPostId(), delta);
+        }
+        countersRepository.addSiteCounter(SiteCounter.COMMENTS, delta);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onSubscriberChanged(SubscriberChangedEvent event) {
+        if (event.getPreviousActive() != null) {
+            if (event.getPreviousActive() == event.isActive()) {
+                return;
+            }
+            countersRepository.addSiteCounter(subscriberCounter(event.getPreviousActive()), -1);
+        }
+        countersRepository.addSiteCounter(subscriberCounter(event.isActive()), 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        countersRepository.addSiteCounter(SiteCounter.USERS, 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.reconcile-interval:PT1H}", initialDelayString = "${app.counters.reconcile-interval:PT1H}")
+    public void reconcile() {
+        try {
+            int siteCounters = countersRepository.reconcileSiteCounters();
+            int commentCounts = countersRepository.reconcileCommentCounts();
+            if (siteCounters > 0 || commentCounts > 0) {
+                log.info("Reconciled {} site counters and {} post comment counts", siteCounters, commentCounts);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reconcile counters, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    private static String postCounter(Post.PostStatus status) {
+        return switch (status) {
+            case DRAFT -> SiteCounter.POSTS_DRAFT;
+            case PUBLISHED -> SiteCounter.POSTS_PUBLISHED;
+            case ARCHIVED -> SiteCounter.POSTS_ARCHIVED;
+        };
+    }
+
+    private static String subscriberCounter(boolean active) {
+        return active ? SiteCounter.SUBSCRIBERS_ACTIVE : SiteCounter.SUBSCRIBERS_INACTIVE;
+    }
+}
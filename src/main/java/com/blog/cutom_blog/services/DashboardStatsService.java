@@ -1,100 +1,113 @@
 package com.blog.cutom_blog.services;
 
-import com.blog.cutom_blog.models.Post;
-import com.blog.cutom_blog.repositories.CommentRepository;
-import com.blog.cutom_blog.repositories.PostRepository;
-import com.blog.cutom_blog.repositories.SubscriberRepository;
-import com.blog.cutom_blog.repositories.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
+import com.blog.cutom_blog.events.PostChangedEvent;
+import com.blog.cutom_blog.repositories.DashboardStatsRepository;
+import com.blog.cutom_blog.repositories.DashboardStatsRepository.DashboardStats;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Dashboard counters. All four stats endpoints read the same short-lived snapshot, which is loaded with a single
+ * query, so a dashboard load costs at most one round trip. Post changes drop the snapshot so the admin sees their
+ * own edits straight away.
+ */
 @Service
 public class DashboardStatsService {
+    private static final String SNAPSHOT = "snapshot";
+
+    private final DashboardStatsRepository dashboardStatsRepository;
+    private final Cache<String, DashboardStats> snapshot;
+
+    public DashboardStatsService(DashboardStatsRepository dashboardStatsRepository,
+                                 CacheRegistry cacheRegistry,
+                                 @Value("${app.dashboard.stats-ttl:PT10S}") Duration statsTtl) {
+        this.dashboardStatsRepository = dashboardStatsRepository;
+        this.snapshot = cacheRegistry.register("dashboardStats", Caffeine.newBuilder()
+            .maximumSize(1)
+            .expireAfterWrite(statsTtl)
+            .recordStats()
+            .build());
+    }
 
-    @Autowired
-    private PostRepository postRepository;
-
-    @Autowired
-    private CommentRepository commentRepository;
-
-    @Autowired
-    private SubscriberRepository subscriberRepository;
+    public DashboardStats getStats() {
+        return snapshot.get(SNAPSHOT, key -> dashboardStatsRepository.findStats());
+    }
 
-    @Autowired
-    private UserRepository userRepository;
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        snapshot.invalidateAll();
+    }
 
     public Map<String, Object> getDashboardStatistics() {
-        Map<String, Object> stats = new HashMap<>();
+        DashboardStats stats = getStats();
+        Map<String, Object> result = new HashMap<>();
 
         // Post statistics
-        Long totalPosts = postRepository.count();
-        Long publishedPosts = postRepository.countByStatus(Post.PostStatus.PUBLISHED);
-        Long draftPosts = postRepository.countByStatus(Post.PostStatus.DRAFT);
-        Long archivedPosts = postRepository.countByStatus(Post.PostStatus.ARCHIVED);
-
-        stats.put("totalPosts", totalPosts);
-        stats.put("publishedPosts", publishedPosts);
-        stats.put("draftPosts", draftPosts);
-        stats.put("archivedPosts", archivedPosts);
+        result.put("totalPosts", stats.totalPosts());
+        result.put("publishedPosts", stats.publishedPosts());
+        result.put("draftPosts", stats.draftPosts());
+        result.put("archivedPosts", stats.archivedPosts());
+        result.put("totalViews", stats.totalViews());
 
         // Comment statistics
-        Long totalComments = commentRepository.count();
-        stats.put("totalComments", totalComments);
+        result.put("totalComments", stats.totalComments());
 
         // Subscriber statistics
-        Long activeSubscribers = subscriberRepository.countByActive(true);
-        Long totalSubscribers = subscriberRepository.count();
-        stats.put("activeSubscribers", activeSubscribers);
-        stats.put("totalSubscribers", totalSubscribers);
+        result.put("activeSubscribers", stats.activeSubscribers());
+        result.put("totalSubscribers", stats.totalSubscribers());
 
         // User statistics
-        Long totalUsers = userRepository.count();
-        stats.put("totalUsers", totalUsers);
+        result.put("totalUsers", stats.totalUsers());
 
-        return stats;
+        return result;
     }
 
     public Map<String, Long> getPostStatsByStatus() {
-        Map<String, Long> stats = new HashMap<>();
+        DashboardStats stats = getStats();
+        Map<String, Long> result = new HashMap<>();
 
-        stats.put("published", postRepository.countByStatus(Post.PostStatus.PUBLISHED));
-        stats.put("draft", postRepository.countByStatus(Post.PostStatus.DRAFT));
-        stats.put("archived", postRepository.countByStatus(Post.PostStatus.ARCHIVED));
-        stats.put("total", postRepository.count());
+        result.put("published", stats.publishedPosts());
+        result.put("draft", stats.draftPosts());
+        result.put("archived", stats.archivedPosts());
+        result.put("total", stats.totalPosts());
 
-        return stats;
+        return result;
     }
 
     public Map<String, Long> getSubscriberStats() {
-        Map<String, Long> stats = new HashMap<>();
+        DashboardStats stats = getStats();
+        Map<String, Long> result = new HashMap<>();
 
-        stats.put("active", subscriberRepository.countByActive(true));
-        stats.put("inactive", subscriberRepository.countByActive(false));
-        stats.put("total", subscriberRepository.count());
+        result.put("active", stats.activeSubscribers());
+        result.put("inactive", stats.inactiveSubscribers());
+        result.put("total", stats.totalSubscribers());
 
-        return stats;
+        return result;
     }
 
     public Map<String, Object> getEngagementStats() {
-        Map<String, Object> stats = new HashMap<>();
-
-        Long totalComments = commentRepository.count();
-        Long totalPosts = postRepository.countByStatus(Post.PostStatus.PUBLISHED);
+        DashboardStats stats = getStats();
+        Map<String, Object> result = new HashMap<>();
 
-        stats.put("totalComments", totalComments);
-        stats.put("totalPosts", totalPosts);
+        result.put("totalComments", stats.totalComments());
+        result.put("totalPosts", stats.publishedPosts());
 
         // Calculate average comments per post
-        if (totalPosts > 0) {
-            double avgCommentsPerPost = (double) totalComments / totalPosts;
-            stats.put("avgCommentsPerPost", Math.round(avgCommentsPerPost * 100.0) / 100.0);
+        if (stats.publishedPosts() > 0) {
+            double avgCommentsPerPost = (double) stats.totalComments() / stats.publishedPosts();
+            result.put("avgCommentsPerPost", Math.round(avgCommentsPerPost * 100.0) / 100.0);
         } else {
-            stats.put("avgCommentsPerPost", 0.0);
+            result.put("avgCommentsPerPost", 0.0);
         }
 
-        return stats;
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -5,117 +5,81 @@ import com.blog.cutom_blog.commons.comms.constants.EmailBodyType;
 import com.blog.cutom_blog.commons.comms.dtos.EmailBody;
 import com.blog.cutom_blog.commons.comms.dtos.EmailDto;
 import com.blog.cutom_blog.config.AppProperties;
+import com.blog.cutom_blog.enums.ENotificationType;
 import com.blog.cutom_blog.models.Post;
-import com.blog.cutom_blog.models.Subscriber;
+import com.blog.cutom_blog.repositories.NotificationOutboxRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
+/**
+ * Subscriber notifications. A notification is only recorded in the outbox when a post changes;
+ * {@link NotificationDispatcher} expands it into recipient batches and sends them in the background.
+ */
 @Slf4j
 @Service
 public class EmailNotificationService {
+    // Mailgun limits the number of recipients per message
+    private static final int BATCH_SIZE = 50;
 
     private final MailGunService mailGunService;
     private final SubscriberService subscriberService;
     private final AppProperties appProperties;
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final EmailTemplateService emailTemplateService;
 
     public EmailNotificationService(MailGunService mailGunService,
                                     SubscriberService subscriberService,
-                                    AppProperties appProperties) {
+                                    AppProperties appProperties,
+                                    NotificationOutboxRepository notificationOutboxRepository,
+                                    EmailTemplateService emailTemplateService) {
         this.mailGunService = mailGunService;
         this.subscriberService = subscriberService;
         this.appProperties = appProperties;
+        this.notificationOutboxRepository = notificationOutboxRepository;
+        this.emailTemplateService = emailTemplateService;
     }
 
-    public void notifySubscribersOfNewPost(Post post) {
-        List<Subscriber> activeSubscribers = subscriberService.getActiveSubscribers();
+    /**
+     * Records the new-post notification in the caller's transaction, so it is sent if and only if the publish commits.
+     */
+    public void enqueueNewPostNotification(Post post) {
+        notificationOutboxRepository.enqueue(post.getId(), ENotificationType.NEW_POST);
+    }
 
-        if (activeSubscribers.isEmpty()) {
-            log.info("No active subscribers to notify for post: {}", post.getTitle());
-            return;
+    /**
+     * Splits the oldest pending notification into batches of active subscribers. Returns false when none is pending.
+     */
+    @Transactional
+    public boolean expandPendingNotification() {
+        Optional<NotificationOutboxRepository.Notification> pending = notificationOutboxRepository.claimPendingNotification();
+        if (pending.isEmpty()) {
+            return false;
         }
+        NotificationOutboxRepository.Notification notification = pending.get();
 
-        List<String> subscriberEmails = activeSubscribers.stream()
-            .map(Subscriber::getEmail)
-            .collect(Collectors.toList());
-
-        String emailBody = buildNewPostEmailHtml(post);
-
-        try {
-            // Send emails in batches if needed (Mailgun has limits)
-            int batchSize = 50;
-            for (int i = 0; i < subscriberEmails.size(); i += batchSize) {
-                List<String> batch = subscriberEmails.subList(
-                    i,
-                    Math.min(i + batchSize, subscriberEmails.size())
-                );
-
-                mailGunService.sendEmail(EmailDto.builder()
-                    .from(appProperties.getEmailConfig().getDefaultFromEmail())
-                    .to(batch)
-                    .subject("New Post: " + post.getTitle() + " - Crypto Blog")
-                    .body(new EmailBody(emailBody, EmailBodyType.HTML))
-                    .build());
+        long subscriberCount = subscriberService.forEachActiveEmailBatch(BATCH_SIZE,
+            batch -> notificationOutboxRepository.insertBatch(notification.id(), batch));
+        notificationOutboxRepository.updateNotificationStatus(notification.id(), NotificationOutboxRepository.EXPANDED);
 
-                log.info("Sent new post notification to {} subscribers", batch.size());
-            }
-
-            log.info("Successfully notified {} subscribers about new post: {}",
-                subscriberEmails.size(), post.getTitle());
-
-        } catch (Exception e) {
-            log.error("Failed to send new post notifications: {}", e.getMessage(), e);
-        }
+        log.info("Queued {} notification {} for post {} to {} subscribers",
+            notification.type(), notification.id(), notification.postId(), subscriberCount);
+        return true;
     }
 
-    private String buildNewPostEmailHtml(Post post) {
-        String baseUrl = "http://localhost:8080"; // TODO: Make this configurable
+    public String renderNewPostEmail(Post post) {
+        return emailTemplateService.renderNewPostEmail(post);
+    }
 
-        return String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <style>
-                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; background: #f4f4f4; }
-                    .container { max-width: 600px; margin: 20px auto; background: white; border-radius: 10px; overflow: hidden; box-shadow: 0 4px 6px rgba(0,0,0,0.1); }
-                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 30px; text-align: center; }
-                    .content { padding: 30px; }
-                    .post-title { color: #667eea; font-size: 24px; margin-bottom: 15px; }
-                    .post-excerpt { color: #666; font-size: 16px; line-height: 1.8; margin: 20px 0; }
-                    .read-more { display: inline-block; background: #667eea; color: white; padding: 12px 30px; text-decoration: none; border-radius: 5px; margin: 20px 0; }
-                    .read-more:hover { background: #5568d3; }
-                    .footer { background: #f9f9f9; padding: 20px; text-align: center; color: #666; font-size: 12px; }
-                    .unsubscribe { color: #999; text-decoration: none; }
-                    .crypto-badge { background: #ffd700; color: #333; padding: 5px 15px; border-radius: 20px; font-size: 12px; font-weight: bold; display: inline-block; margin-bottom: 15px; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>📰 New Article Published!</h1>
-                        <span class="crypto-badge">🚀 CRYPTO NEWS</span>
-                    </div>
-                    <div class="content">
-                        <h2 class="post-title">%s</h2>
-                        <p class="post-excerpt">%s</p>
-                        <a href="%s/posts/%s" class="read-more">Read Full Article →</a>
-                    </div>
-                    <div class="footer">
-                        <p>You're receiving this because you subscribed to our crypto blog.</p>
-                        <p><a href="%s/unsubscribe" class="unsubscribe">Unsubscribe</a></p>
-                        <p>© 2025 Crypto Blog. All rights reserved.</p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """,
-            post.getTitle(),
-            post.getExcerpt() != null ? post.getExcerpt() : "Click to read the full article...",
-            baseUrl,
-            post.getSlug() != null ? post.getSlug() : post.getId(),
-            baseUrl
-        );
+    public void sendNewPostEmail(Post post, String emailBody, List<String> recipients) {
+        mailGunService.sendEmail(EmailDto.builder()
+            .from(appProperties.getEmailConfig().getDefaultFromEmail())
+            .to(recipients)
+            .subject("New Post: " + post.getTitle() + " - Crypto Blog")
+            .body(new EmailBody(emailBody, EmailBodyType.HTML))
+            .build());
     }
-}
\ No newline at end of file
+}
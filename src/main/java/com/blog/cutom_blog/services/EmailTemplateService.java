@@ -0,0 +1,69 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
+import com.blog.cutom_blog.config.AppProperties;
+import com.blog.cutom_blog.models.Post;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * HTML email bodies, rendered from the Thymeleaf templates under {@code templates/email}.
+ * <p>
+ * Templates are parsed once and kept by the template engine, and every value is escaped by {@code th:text} and
+ * {@code th:href}. A new-post body is the same for every subscriber, so it is rendered once per version of the post
+ * and reused by every batch of the fan-out.
+ */
+@Service
+public class EmailTemplateService {
+    private static final String DEFAULT_BASE_URL = "http://localhost:8080";
+
+    private final ITemplateEngine templateEngine;
+    private final String baseUrl;
+    private final Cache<String, String> newPostEmails;
+
+    public EmailTemplateService(ITemplateEngine templateEngine,
+                                AppProperties appProperties,
+                                CacheRegistry cacheRegistry) {
+        this.templateEngine = templateEngine;
+        String configured = appProperties.getBaseUrl();
+        this.baseUrl = configured == null || configured.isBlank()
+            ? DEFAULT_BASE_URL
+            : configured.replaceAll("/+$", "");
+        this.newPostEmails = cacheRegistry.register("newPostEmails", Caffeine.newBuilder()
+            .maximumSize(100)
+            .expireAfterWrite(Duration.ofHours(6))
+            .recordStats()
+            .build());
+    }
+
+    public String renderNewPostEmail(Post post) {
+        LocalDateTime version = post.getUpdatedAt() != null ? post.getUpdatedAt() : post.getCreatedAt();
+        return newPostEmails.get(post.getId() + "@" + version, key -> {
+            Context context = new Context(Locale.US);
+            context.setVariable("title", post.getTitle());
+            context.setVariable("excerpt", post.getExcerpt());
+            context.setVariable("postUrl", UriComponentsBuilder.fromUriString(baseUrl)
+                .path("/post")
+                .queryParam("slug", post.getSlug())
+                .encode()
+                .toUriString());
+            context.setVariable("unsubscribeUrl", baseUrl + "/unsubscribe");
+            return templateEngine.process("email/new-post", context);
+        });
+    }
+
+    public String renderOtpEmail(String otp, int expiryMinutes) {
+        Context context = new Context(Locale.US);
+        context.setVariable("otp", otp);
+        context.setVariable("expiryMinutes", expiryMinutes);
+        return templateEngine.process("email/otp", context);
+    }
+}
@@ -0,0 +1,484 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
+import com.blog.cutom_blog.config.FileUploadConfig;
+import com.blog.cutom_blog.exceptions.BadRequestException;
+import com.blog.cutom_blog.exceptions.ServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Upload pipeline for post images.
+ * <p>
+ * An upload is decoded and written back without its metadata, so camera and location tags never reach readers,
+ * and downscaled to fixed widths as progressive JPEGs next to it. Pages offer the widths as a {@code srcset} and
+ * browsers fetch the smallest one that fills the slot instead of the full upload. Photos are turned upright by their
+ * EXIF orientation before the tag is dropped, and large uploads are decoded subsampled, so one upload never takes
+ * more than a bounded amount of memory. Transparent images are kept as PNG without widths, since JPEG has no alpha.
+ * Decoding and encoding run on a small bounded pool off the request thread; formats ImageIO cannot decode are stored
+ * as they are, without widths.
+ */
+@Slf4j
+@Service
+public class ImageService {
+    public static final int[] VARIANT_WIDTHS = {320, 640, 1280};
+    private static final float ORIGINAL_QUALITY = 0.9f;
+    private static final float VARIANT_QUALITY = 0.8f;
+    // Rejects decompression bombs before any pixel is decoded
+    private static final long MAX_PIXELS = 50_000_000L;
+    // Larger uploads are subsampled while decoding, down to no less than twice the largest width and no more than
+    // MAX_DECODED_PIXELS, which bounds the memory one upload takes
+    private static final int DECODED_WIDTH = 2 * VARIANT_WIDTHS[VARIANT_WIDTHS.length - 1];
+    private static final long MAX_DECODED_PIXELS = 12_000_000L;
+    private static final int EXIF_MARKER = 0xE1;
+    private static final int START_OF_SCAN = 0xDA;
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+    private static final Pattern UPLOAD_NAME = Pattern.compile(
+        "/uploads/([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})\\.([a-z0-9]{1,5})$");
+
+    private final Path uploadDir;
+    private final ThreadPoolExecutor processors;
+    private final Cache<String, Optional<String>> srcsets;
+
+    public ImageService(FileUploadConfig fileUploadConfig,
+                        CacheRegistry cacheRegistry,
+                        @Value("${app.upload.image.threads:2}") int threads,
+                        @Value("${app.upload.image.queue-size:16}") int queueSize) {
+        this.uploadDir = Paths.get(fileUploadConfig.getUploadDir());
+        this.processors = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize), new CustomizableThreadFactory("image-processor-"));
+        // Uploads are never rewritten, so an entry only goes stale if its files are removed by hand
+        this.srcsets = cacheRegistry.register("imageSrcsets", Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .recordStats()
+            .build());
+    }
+
+    /**
+     * Stores an upload with its resized widths. Completes with the manifest of what was written, or exceptionally
+     * with {@link UncheckedIOException} when the files could not be written.
+     *
+     * @throws ServiceUnavailableException when too many uploads are already being processed
+     */
+    public CompletableFuture<UploadedImage> store(byte[] content, String originalFilename) {
+        try {
+            return CompletableFuture.supplyAsync(() -> process(content, originalFilename), processors);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Image processing queue is full",
+                "Too many images are being processed. Please try again in a moment.");
+        }
+    }
+
+    /**
+     * {@code srcset} of an image stored by {@link #store}, or null for images without resized widths such as
+     * external links and uploads from before the pipeline.
+     */
+    public String getSrcset(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        Matcher matcher = UPLOAD_NAME.matcher(imageUrl);
+        if (!matcher.find()) {
+            return null;
+        }
+        String id = matcher.group(1);
+        String filename = id + "." + matcher.group(2);
+        return srcsets.get(filename, key -> {
+            List<Integer> widths = new ArrayList<>();
+            for (int width : VARIANT_WIDTHS) {
+                if (Files.exists(uploadDir.resolve(variantName(id, width)))) {
+                    widths.add(width);
+                }
+            }
+            if (widths.isEmpty()) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(srcset(id, filename, readWidth(uploadDir.resolve(filename)), widths));
+            } catch (IOException e) {
+                log.warn("Failed to read image {}: {}", filename, e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        processors.shutdown();
+        processors.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private UploadedImage process(byte[] content, String originalFilename) {
+        String id = UUID.randomUUID().toString();
+        String extension = extension(originalFilename);
+        try {
+            BufferedImage image = decode(content);
+            if (image == null) {
+                // Nothing to strip or resize with the decoders at hand, so keep the upload as it was
+                String filename = id + extension;
+                write(filename, content);
+                return new UploadedImage("/uploads/" + filename, filename, null, null, List.of(), null);
+            }
+
+            if (image.getColorModel().hasAlpha()) {
+                // Resized widths are JPEG and would lose the alpha, so transparent images are only kept whole
+                String filename = id + ".png";
+                write(filename, encodePng(image));
+                srcsets.put(filename, Optional.empty());
+                log.info("Stored transparent image {} ({}x{})", filename, image.getWidth(), image.getHeight());
+                return new UploadedImage("/uploads/" + filename, filename, image.getWidth(), image.getHeight(),
+                    List.of(), null);
+            }
+
+            String filename = id + ".jpg";
+            BufferedImage opaque = toRgb(image);
+            write(filename, encodeJpeg(opaque, ORIGINAL_QUALITY));
+
+            List<Variant> variants = new ArrayList<>();
+            for (int width : VARIANT_WIDTHS) {
+                if (width >= image.getWidth()) {
+                    break;
+                }
+                BufferedImage resized = resize(opaque, width);
+                String variantName = variantName(id, width);
+                write(variantName, encodeJpeg(resized, VARIANT_QUALITY));
+                variants.add(new Variant("/uploads/" + variantName, resized.getWidth(), resized.getHeight()));
+            }
+
+            String srcset = srcset(id, filename, image.getWidth(),
+                variants.stream().map(Variant::width).collect(Collectors.toList()));
+            srcsets.put(filename, Optional.ofNullable(srcset));
+            log.info("Stored image {} ({}x{}) with {} resized widths", filename, image.getWidth(), image.getHeight(),
+                variants.size());
+            return new UploadedImage("/uploads/" + filename, filename, image.getWidth(), image.getHeight(), variants,
+                srcset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store image " + originalFilename, e);
+        }
+    }
+
+    /**
+     * The resized widths, plus the stored image itself when it is no wider than the largest of them; wider ones are
+     * left out so high density screens still get a resized width rather than the full upload.
+     */
+    private static String srcset(String id, String filename, int imageWidth, List<Integer> widths) {
+        if (widths.isEmpty()) {
+            return null;
+        }
+        List<String> candidates = new ArrayList<>();
+        for (int width : widths) {
+            candidates.add("/uploads/" + variantName(id, width) + " " + width + "w");
+        }
+        if (imageWidth <= VARIANT_WIDTHS[VARIANT_WIDTHS.length - 1]) {
+            candidates.add("/uploads/" + filename + " " + imageWidth + "w");
+        }
+        return String.join(", ", candidates);
+    }
+
+    private static int readWidth(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("No reader for " + file.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return reader.getWidth(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decoded image, turned upright and subsampled when large, or null when it should be stored as uploaded.
+     */
+    private static BufferedImage decode(byte[] content) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                // Re-encoding would drop the animation
+                if ("gif".equalsIgnoreCase(reader.getFormatName())) {
+                    return null;
+                }
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                long pixels = (long) width * height;
+                if (pixels > MAX_PIXELS) {
+                    throw new BadRequestException("Image is too large: " + width + "x" + height);
+                }
+                // Read from the upload, since the metadata is not written back
+                int orientation = "jpeg".equalsIgnoreCase(reader.getFormatName()) ? orientation(content) : 1;
+                int subsampling = subsampling(orientation >= 5 ? height : width, pixels);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return orient(reader.read(0, param), orientation);
+            } catch (IIOException e) {
+                // Recognized but not decodable here, such as CMYK JPEGs
+                log.warn("Storing image without processing, it could not be decoded: {}", e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Every {@code factor}-th pixel in each direction is decoded: the largest factor that keeps the upright width at
+     * least {@link #DECODED_WIDTH}, raised further if the image would still exceed {@link #MAX_DECODED_PIXELS}.
+     */
+    private static int subsampling(int uprightWidth, long pixels) {
+        int byWidth = uprightWidth / DECODED_WIDTH;
+        int byPixels = (int) Math.ceil(Math.sqrt((double) pixels / MAX_DECODED_PIXELS));
+        return Math.max(1, Math.max(byWidth, byPixels));
+    }
+
+    /**
+     * EXIF orientation of a JPEG, from 1 (stored upright) to 8; 1 for photos without the tag. The marker segments
+     * before the image data are walked directly, since ImageIO's JPEG metadata rejects the common EXIF-only layout.
+     */
+    private static int orientation(byte[] jpeg) {
+        int offset = 2;
+        while (offset + 4 <= jpeg.length && (jpeg[offset] & 0xFF) == 0xFF) {
+            int marker = jpeg[offset + 1] & 0xFF;
+            if (marker == START_OF_SCAN) {
+                break;
+            }
+            int length = ((jpeg[offset + 2] & 0xFF) << 8) | (jpeg[offset + 3] & 0xFF);
+            if (marker == EXIF_MARKER) {
+                int orientation = exifOrientation(ByteBuffer.wrap(jpeg, offset + 4,
+                    Math.max(0, Math.min(jpeg.length, offset + 2 + length) - offset - 4)).slice());
+                if (orientation >= 1 && orientation <= 8) {
+                    return orientation;
+                }
+            }
+            offset += 2 + length;
+        }
+        return 1;
+    }
+
+    /**
+     * The orientation tag of an APP1 segment: "Exif", two padding bytes, then a TIFF header whose first directory
+     * holds the tag. 0 when the segment is not EXIF or has no orientation.
+     */
+    private static int exifOrientation(ByteBuffer exif) {
+        int tiff = 6;
+        if (exif.limit() < tiff + 8 || exif.get(0) != 'E' || exif.get(1) != 'x' || exif.get(2) != 'i'
+            || exif.get(3) != 'f') {
+            return 0;
+        }
+        exif.order(exif.get(tiff) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        try {
+            int directory = tiff + exif.getInt(tiff + 4);
+            int entries = exif.getShort(directory) & 0xFFFF;
+            for (int i = 0; i < entries; i++) {
+                int entry = directory + 2 + i * 12;
+                if ((exif.getShort(entry) & 0xFFFF) == EXIF_ORIENTATION_TAG) {
+                    return exif.getShort(entry + 8) & 0xFFFF;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Truncated or malformed, treated as no orientation
+        }
+        return 0;
+    }
+
+    /**
+     * Applies an EXIF orientation: 2 to 4 mirror or turn the image half way, 5 to 8 turn it a quarter and swap its
+     * width and height.
+     */
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            default -> new AffineTransform(0, -1, 1, 0, 0, width);
+        };
+        boolean quarterTurn = orientation >= 5;
+        BufferedImage upright = new BufferedImage(quarterTurn ? height : width, quarterTurn ? width : height,
+            image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = upright.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return upright;
+    }
+
+    /**
+     * Opaque image in a layout the JPEG writer takes. The layouts photos are decoded into pass through without a copy;
+     * others, such as indexed PNGs, are redrawn as RGB.
+     */
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * Halves the image until it is less than twice the target width and then scales the rest of the way, since a
+     * single bilinear step over a large factor skips most source pixels and aliases.
+     */
+    private static BufferedImage resize(BufferedImage image, int width) {
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= width) {
+            current = scale(current, current.getWidth() / 2);
+        }
+        return current.getWidth() == width ? current : scale(current, width);
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width) {
+        int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Written without metadata; progressive so slow connections show the whole image early.
+     */
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Written to a temporary file and moved into place so the file is never served half written.
+     */
+    private void write(String filename, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(uploadDir, "upload", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, uploadDir.resolve(filename), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String variantName(String id, int width) {
+        return id + "-" + width + "w.jpg";
+    }
+
+    private static String extension(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        return extension.matches("\\.[a-z0-9]{1,5}") ? extension : "";
+    }
+
+    public record Variant(String url, int width, int height) {
+    }
+
+    /**
+     * Upload response: the stored image and its resized widths, with a {@code srcset} ready for an img tag.
+     * Dimensions, widths and srcset are absent for images that could not be decoded.
+     */
+    public record UploadedImage(String url, String filename, Integer width, Integer height, List<Variant> variants,
+                                String srcset) {
+
+        public Map<String, Object> toResponse() {
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("url", url);
+            response.put("filename", filename);
+            response.put("width", width);
+            response.put("height", height);
+            response.put("variants", variants);
+            response.put("srcset", srcset);
+            return response;
+        }
+    }
+}
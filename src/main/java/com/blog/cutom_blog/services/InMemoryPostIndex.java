@@ -0,0 +1,363 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.dtos.PostSearchResponse;
+import com.blog.cutom_blog.dtos.PostSummaryResponse;
+import com.blog.cutom_blog.events.CommentChangedEvent;
+import com.blog.cutom_blog.events.PostChangedEvent;
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.repositories.PostRepository;
+import com.blog.cutom_blog.repositories.projections.PostSummaryView;
+import com.blog.cutom_blog.utils.StringUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional in-memory inverted index over published posts, scored with BM25.
+ * <p>
+ * Built once the application is ready and kept current from {@link PostChangedEvent}s and
+ * {@link CommentChangedEvent}s, so searches are answered without a database connection. Hits are assembled when they
+ * are read, with authors from {@link AuthorService}'s cache and live view counts, so they never go stale. Every query
+ * term matches as a prefix and all terms must match, mirroring the Postgres search in {@link PostSearchService}.
+ * Until the first build completes {@link #isReady()} is false and searches go to Postgres.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.search.in-memory.enabled", havingValue = "true")
+public class InMemoryPostIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_BOOST = 3;
+    private static final int MAX_TERMS = 8;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int BUILD_BATCH_SIZE = 200;
+    private static final int MIN_DELETED_FOR_COMPACTION = 256;
+
+    private final PostRepository postRepository;
+    private final PostService postService;
+    private final CounterService counterService;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sorted so a partially typed term can be expanded to every indexed term it prefixes
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<String, Integer> docIdsByPostId = new HashMap<>();
+    // Indexed by doc id; a null slot is a deleted document until the next compaction renumbers the live ones
+    private final List<PostSummaryView> documents = new ArrayList<>();
+    private final Map<String, Long> commentCounts = new HashMap<>();
+    private int[] docLengths = new int[1024];
+    private long totalLength;
+    private int liveDocs;
+    private int deletedDocs;
+    private volatile boolean ready;
+
+    public InMemoryPostIndex(PostRepository postRepository, PostService postService, CounterService counterService) {
+        this.postRepository = postRepository;
+        this.postService = postService;
+        this.counterService = counterService;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.currentTimeMillis();
+        // Held for the whole build so post changes arriving meanwhile are applied on top of it, not lost
+        lock.writeLock().lock();
+        try {
+            // Paged by id rather than offset, so posts committed meanwhile are neither read twice nor skipped; any
+            // that land behind the scan arrive through onPostChanged once the lock is released
+            String afterId = "";
+            List<Post> batch;
+            do {
+                batch = postRepository.findByStatusAfter(Post.PostStatus.PUBLISHED, afterId,
+                    PageRequest.of(0, BUILD_BATCH_SIZE));
+                Map<String, PostSummaryView> summaries = summariesOf(batch);
+                commentCounts.putAll(counterService.getCommentCounts(summaries.keySet()));
+                for (Post post : batch) {
+                    PostSummaryView summary = summaries.get(post.getId());
+                    if (summary != null) {
+                        add(post, summary);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("In-memory post index built: {} posts, {} terms in {} ms",
+            liveDocs, postings.size(), System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        Post post = null;
+        PostSummaryView summary = null;
+        Long commentCount = null;
+        if (event.getType() != PostChangedEvent.Type.DELETED && event.getStatus() == Post.PostStatus.PUBLISHED) {
+            post = postRepository.findById(event.getPostId())
+                .filter(found -> found.getStatus() == Post.PostStatus.PUBLISHED)
+                .orElse(null);
+            if (post != null) {
+                summary = summariesOf(List.of(post)).get(post.getId());
+                commentCount = counterService.getCommentCounts(List.of(post.getId())).get(post.getId());
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            remove(event.getPostId());
+            if (post != null && summary != null) {
+                add(post, summary);
+                if (commentCount != null) {
+                    commentCounts.put(post.getId(), commentCount);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentChanged(CommentChangedEvent event) {
+        if (event.getType() == CommentChangedEvent.Type.UPDATED || event.getPostId() == null) {
+            return;
+        }
+        long delta = event.getType() == CommentChangedEvent.Type.CREATED ? 1 : -1;
+        lock.writeLock().lock();
+        try {
+            if (docIdsByPostId.containsKey(event.getPostId())) {
+                commentCounts.merge(event.getPostId(), delta, Long::sum);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Page<PostSearchResponse> search(String keyword, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        List<String> terms = StringUtils.tokenize(keyword).stream()
+            .distinct()
+            .limit(MAX_TERMS)
+            .collect(Collectors.toList());
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        List<PostSummaryView> hits = new ArrayList<>();
+        List<Double> ranks = new ArrayList<>();
+        Map<String, Long> hitCommentCounts = new HashMap<>();
+        int total = 0;
+        lock.readLock().lock();
+        try {
+            int maxDoc = documents.size();
+            float[] scores = new float[maxDoc];
+            // Number of leading query terms each document has matched; a document stays a candidate only
+            // while it keeps up, which gives AND semantics without a second pass
+            int[] matched = new int[maxDoc];
+            float avgLength = liveDocs == 0 ? 1f : (float) totalLength / liveDocs;
+
+            for (int q = 0; q < terms.size(); q++) {
+                for (Postings termPostings : expand(terms.get(q))) {
+                    float idf = (float) Math.log(1 + (liveDocs - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                    for (int i = 0; i < termPostings.size; i++) {
+                        int doc = termPostings.docs[i];
+                        if (matched[doc] < q || documents.get(doc) == null) {
+                            continue;
+                        }
+                        matched[doc] = q + 1;
+                        float tf = termPostings.freqs[i];
+                        float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                        scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                    }
+                }
+            }
+
+            // Bounded min-heap keeps only the hits up to the end of the requested page
+            long limit = pageable.getOffset() + size;
+            PriorityQueue<Integer> top = new PriorityQueue<>((a, b) -> Float.compare(scores[a], scores[b]));
+            for (int doc = 0; doc < maxDoc; doc++) {
+                if (matched[doc] != terms.size()) {
+                    continue;
+                }
+                total++;
+                if (top.size() < limit) {
+                    top.add(doc);
+                } else if (scores[doc] > scores[top.peek()]) {
+                    top.poll();
+                    top.add(doc);
+                }
+            }
+
+            Integer[] ranked = top.toArray(new Integer[0]);
+            Arrays.sort(ranked, (a, b) -> Float.compare(scores[b], scores[a]));
+            for (int i = (int) pageable.getOffset(); i < ranked.length; i++) {
+                PostSummaryView hit = documents.get(ranked[i]);
+                hits.add(hit);
+                ranks.add((double) scores[ranked[i]]);
+                hitCommentCounts.put(hit.getId(), commentCounts.getOrDefault(hit.getId(), 0L));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<PostSummaryResponse> summaries = postService.toPostSummaries(hits, hitCommentCounts);
+        List<PostSearchResponse> results = new ArrayList<>();
+        for (int i = 0; i < summaries.size(); i++) {
+            results.add(PostSearchResponse.builder()
+                .post(summaries.get(i))
+                .rank(ranks.get(i))
+                .build());
+        }
+        return new PageImpl<>(results, pageable, total);
+    }
+
+    private Map<String, PostSummaryView> summariesOf(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return Map.of();
+        }
+        List<String> ids = posts.stream().map(Post::getId).collect(Collectors.toList());
+        return postRepository.findSummariesByIdIn(ids).stream()
+            .collect(Collectors.toMap(PostSummaryView::getId, Function.identity()));
+    }
+
+    private Collection<Postings> expand(String term) {
+        return postings.subMap(term, true, term + Character.MAX_VALUE, true).values().stream()
+            .limit(MAX_PREFIX_EXPANSIONS)
+            .collect(Collectors.toList());
+    }
+
+    private void add(Post post, PostSummaryView summary) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String token : StringUtils.tokenize(post.getTitle())) {
+            frequencies.merge(token, TITLE_BOOST, Integer::sum);
+            length += TITLE_BOOST;
+        }
+        for (String field : new String[]{post.getSubtitle(), post.getExcerpt(), post.getMetaKeywords(), post.getContent()}) {
+            for (String token : StringUtils.tokenize(field)) {
+                frequencies.merge(token, 1, Integer::sum);
+                length++;
+            }
+        }
+
+        int doc = documents.size();
+        documents.add(summary);
+        if (doc == docLengths.length) {
+            docLengths = Arrays.copyOf(docLengths, doc * 2);
+        }
+        docLengths[doc] = length;
+        totalLength += length;
+        liveDocs++;
+        docIdsByPostId.put(post.getId(), doc);
+        frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new Postings()).add(doc, frequency));
+    }
+
+    private void remove(String postId) {
+        Integer doc = docIdsByPostId.remove(postId);
+        if (doc == null) {
+            return;
+        }
+        documents.set(doc, null);
+        commentCounts.remove(postId);
+        totalLength -= docLengths[doc];
+        liveDocs--;
+        deletedDocs++;
+    }
+
+    /**
+     * Deleted documents are only tombstoned; once they outnumber live ones the live documents are renumbered from
+     * zero and the postings of deleted ones dropped, so the per-search arrays stay proportional to the live corpus.
+     */
+    private void compactIfNeeded() {
+        if (deletedDocs < MIN_DELETED_FOR_COMPACTION || deletedDocs < liveDocs) {
+            return;
+        }
+        int[] newDocIds = new int[documents.size()];
+        List<PostSummaryView> live = new ArrayList<>(liveDocs);
+        int[] lengths = new int[Math.max(liveDocs * 2, 1024)];
+        for (int doc = 0; doc < documents.size(); doc++) {
+            PostSummaryView summary = documents.get(doc);
+            if (summary == null) {
+                newDocIds[doc] = -1;
+                continue;
+            }
+            int newDoc = live.size();
+            newDocIds[doc] = newDoc;
+            lengths[newDoc] = docLengths[doc];
+            docIdsByPostId.put(summary.getId(), newDoc);
+            live.add(summary);
+        }
+        postings.values().removeIf(termPostings -> termPostings.renumber(newDocIds) == 0);
+        documents.clear();
+        documents.addAll(live);
+        docLengths = lengths;
+        deletedDocs = 0;
+    }
+
+    /**
+     * Doc ids and term frequencies of one term, in doc id order, as parallel primitive arrays.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        /**
+         * Maps every doc id through {@code newDocIds}, dropping those mapped to -1. The mapping preserves order, so
+         * the list stays sorted.
+         */
+        int renumber(int[] newDocIds) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = newDocIds[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (kept * 4 < docs.length && docs.length > 4) {
+                docs = Arrays.copyOf(docs, Math.max(kept, 4));
+                freqs = Arrays.copyOf(freqs, Math.max(kept, 4));
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.repositories.NotificationOutboxRepository;
+import com.blog.cutom_blog.repositories.PostRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Background sender for the notification outbox.
+ * <p>
+ * Every few seconds pending notifications are expanded into recipient batches, and as many due batches as there
+ * are free sender slots are leased and sent in parallel on a bounded pool. A failed batch is retried with
+ * exponential backoff until it runs out of attempts; a batch whose sender died is picked up again once its lease
+ * runs out, so nothing recorded in the outbox is lost, and marked FAILED instead when that was its last attempt.
+ */
+@Slf4j
+@Service
+public class NotificationDispatcher {
+    private static final Duration BASE_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+    // Bounds the work done per run so a backlog of publishes cannot hold the scheduler thread
+    private static final int MAX_EXPANSIONS_PER_RUN = 10;
+
+    private final EmailNotificationService emailNotificationService;
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final PostRepository postRepository;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ThreadPoolExecutor senders;
+
+    public NotificationDispatcher(EmailNotificationService emailNotificationService,
+                                  NotificationOutboxRepository notificationOutboxRepository,
+                                  PostRepository postRepository,
+                                  @Value("${app.notifications.sender-threads:4}") int senderThreads,
+                                  @Value("${app.notifications.max-attempts:6}") int maxAttempts,
+                                  @Value("${app.notifications.lease:PT5M}") Duration lease) {
+        this.emailNotificationService = emailNotificationService;
+        this.notificationOutboxRepository = notificationOutboxRepository;
+        this.postRepository = postRepository;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        // Batches are only claimed for free slots, so the queue never fills up
+        this.maxInFlight = senderThreads * 2;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(maxInFlight), new CustomizableThreadFactory("notification-sender-"));
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.dispatch-interval:PT5S}")
+    public void dispatch() {
+        try {
+            int expanded = 0;
+            while (expanded < MAX_EXPANSIONS_PER_RUN && emailNotificationService.expandPendingNotification()) {
+                expanded++;
+            }
+
+            int exhausted = notificationOutboxRepository.failExhaustedBatches(maxAttempts);
+            if (exhausted > 0) {
+                log.error("Gave up on {} notification batches whose last attempt never finished", exhausted);
+            }
+
+            int freeSlots = maxInFlight - inFlight.get();
+            if (freeSlots <= 0) {
+                return;
+            }
+            List<NotificationOutboxRepository.Batch> batches =
+                notificationOutboxRepository.claimDueBatches(freeSlots, lease, maxAttempts);
+            Map<String, List<NotificationOutboxRepository.Batch>> batchesByPost = batches.stream()
+                .collect(Collectors.groupingBy(NotificationOutboxRepository.Batch::postId, LinkedHashMap::new,
+                    Collectors.toList()));
+            batchesByPost.forEach(this::submit);
+        } catch (Exception e) {
+            log.warn("Notification dispatch failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        senders.shutdown();
+        // Batches still leased when the pool is gone are sent again after their lease runs out
+        senders.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void submit(String postId, List<NotificationOutboxRepository.Batch> batches) {
+        Optional<Post> post = postRepository.findById(postId)
+            .filter(found -> found.getStatus() == Post.PostStatus.PUBLISHED);
+        if (post.isEmpty()) {
+            batches.forEach(batch -> notificationOutboxRepository.markCancelled(batch.id(), "Post is no longer published"));
+            return;
+        }
+
+        // Cached per version of the post, so the whole fan-out renders it once
+        String emailBody = emailNotificationService.renderNewPostEmail(post.get());
+        for (NotificationOutboxRepository.Batch batch : batches) {
+            inFlight.incrementAndGet();
+            senders.execute(() -> {
+                try {
+                    send(post.get(), emailBody, batch);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void send(Post post, String emailBody, NotificationOutboxRepository.Batch batch) {
+        try {
+            emailNotificationService.sendNewPostEmail(post, emailBody, batch.recipients());
+            notificationOutboxRepository.markSent(batch.id());
+            log.info("Sent new post notification for {} to {} subscribers", post.getId(), batch.recipients().size());
+        } catch (Exception e) {
+            try {
+                if (batch.attempts() >= maxAttempts) {
+                    notificationOutboxRepository.markFailed(batch.id(), e.getMessage());
+                    log.error("Giving up on notification batch {} after {} attempts: {}",
+                        batch.id(), batch.attempts(), e.getMessage(), e);
+                } else {
+                    Duration delay = retryDelay(batch.attempts());
+                    notificationOutboxRepository.scheduleRetry(batch.id(), delay, e.getMessage());
+                    log.warn("Notification batch {} failed (attempt {}), retrying in {}: {}",
+                        batch.id(), batch.attempts(), delay, e.getMessage());
+                }
+            } catch (Exception statusFailure) {
+                // The lease runs out and the batch is sent again
+                log.error("Failed to record the outcome of notification batch {}: {}",
+                    batch.id(), statusFailure.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Doubles with every attempt, with jitter so batches that failed together are not retried together.
+     */
+    private static Duration retryDelay(int attempts) {
+        long seconds = BASE_RETRY_DELAY.toSeconds() << Math.min(attempts - 1, 16);
+        seconds = Math.min(seconds, MAX_RETRY_DELAY.toSeconds());
+        return Duration.ofSeconds(seconds + ThreadLocalRandom.current().nextLong(seconds / 5 + 1));
+    }
+}
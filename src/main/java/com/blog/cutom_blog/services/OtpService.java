@@ -6,16 +6,21 @@ import com.blog.cutom_blog.commons.comms.dtos.EmailBody;
 import com.blog.cutom_blog.commons.comms.dtos.EmailDeliveryStatus;
 import com.blog.cutom_blog.commons.comms.dtos.EmailDto;
 import com.blog.cutom_blog.commons.comms.dtos.SendOtpResponse;
+import com.blog.cutom_blog.commons.otp.OtpStore;
 import com.blog.cutom_blog.config.AppProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Slf4j
 @Service
@@ -25,15 +30,27 @@ public class OtpService {
     private static final int OTP_EXPIRY_MINUTES = 10;
     private final SecureRandom random = new SecureRandom();
 
-    // In-memory storage for OTPs (for production, use Redis or database)
-    private final Map<String, OtpData> otpStorage = new ConcurrentHashMap<>();
-
+    private final OtpStore otpStore;
     private final MailGunService mailGunService;
     private final AppProperties appProperties;
+    private final EmailTemplateService emailTemplateService;
+    private final int maxAttempts;
+
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder swept = new LongAdder();
+    private final Map<OtpStore.Verification, LongAdder> verifications = new EnumMap<>(OtpStore.Verification.class);
 
-    public OtpService(MailGunService mailGunService, AppProperties appProperties) {
+    public OtpService(OtpStore otpStore, MailGunService mailGunService, AppProperties appProperties,
+                      EmailTemplateService emailTemplateService,
+                      @Value("${app.otp.max-attempts:5}") int maxAttempts) {
+        this.otpStore = otpStore;
         this.mailGunService = mailGunService;
         this.appProperties = appProperties;
+        this.emailTemplateService = emailTemplateService;
+        this.maxAttempts = maxAttempts;
+        for (OtpStore.Verification verification : OtpStore.Verification.values()) {
+            verifications.put(verification, new LongAdder());
+        }
     }
 
     public SendOtpResponse generateAndSendOtp(String email, String tokenIdentifier) {
@@ -42,10 +59,11 @@ public class OtpService {
         Instant expireAt = issuedAt.plus(OTP_EXPIRY_MINUTES, ChronoUnit.MINUTES);
 
         // Store OTP
-        otpStorage.put(tokenIdentifier, new OtpData(otp, expireAt));
+        otpStore.put(tokenIdentifier, otp, expireAt);
+        issued.increment();
 
         // Send email
-        String htmlBody = buildOtpEmailHtml(otp, OTP_EXPIRY_MINUTES);
+        String htmlBody = emailTemplateService.renderOtpEmail(otp, OTP_EXPIRY_MINUTES);
 
         try {
             EmailDeliveryStatus status = mailGunService.sendEmail(EmailDto.builder()
@@ -70,75 +88,45 @@ public class OtpService {
     }
 
     public boolean validateOtp(String otp, String tokenIdentifier) {
-        OtpData otpData = otpStorage.get(tokenIdentifier);
-
-        if (otpData == null) {
-            log.warn("OTP validation failed: No OTP found for identifier {}", tokenIdentifier);
-            return false;
+        OtpStore.Verification verification = otpStore.verify(tokenIdentifier, otp, maxAttempts);
+        verifications.get(verification).increment();
+
+        switch (verification) {
+            case VALID -> {
+                return true;
+            }
+            case NOT_FOUND -> log.warn("OTP validation failed: No OTP found for identifier {}", tokenIdentifier);
+            case EXPIRED -> log.warn("OTP validation failed: OTP expired for identifier {}", tokenIdentifier);
+            case TOO_MANY_ATTEMPTS -> log.warn("OTP validation failed: Too many attempts for identifier {}", tokenIdentifier);
+            case INVALID -> log.warn("OTP validation failed: Wrong OTP for identifier {}", tokenIdentifier);
         }
+        return false;
+    }
 
-        if (Instant.now().isAfter(otpData.expireAt)) {
-            log.warn("OTP validation failed: OTP expired for identifier {}", tokenIdentifier);
-            otpStorage.remove(tokenIdentifier);
-            return false;
-        }
-
-        boolean isValid = otpData.otp.equals(otp);
-
-        if (isValid) {
-            otpStorage.remove(tokenIdentifier); // Remove OTP after successful validation
+    @Scheduled(fixedDelayString = "${app.otp.sweep-interval:PT1M}")
+    public void removeExpiredOtps() {
+        try {
+            swept.add(otpStore.removeExpired());
+        } catch (Exception e) {
+            log.warn("Failed to remove expired OTPs: {}", e.getMessage());
         }
+    }
 
-        return isValid;
+    /**
+     * Pending codes and verification outcomes since startup, for the admin dashboard.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", otpStore.getClass().getSimpleName());
+        stats.put("pending", otpStore.size());
+        stats.put("issued", issued.sum());
+        stats.put("expiredRemoved", swept.sum());
+        verifications.forEach((verification, count) -> stats.put(verification.name().toLowerCase(), count.sum()));
+        return stats;
     }
 
     private String generateOtp() {
         int otp = random.nextInt(900000) + 100000; // Generate 6-digit OTP
         return String.valueOf(otp);
     }
-
-    private String buildOtpEmailHtml(String otp, int expiryMinutes) {
-        return String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <style>
-                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 30px; text-align: center; border-radius: 10px 10px 0 0; }
-                    .content { background: #f9f9f9; padding: 30px; border-radius: 0 0 10px 10px; }
-                    .otp-box { background: white; border: 2px solid #667eea; padding: 20px; text-align: center; font-size: 32px; font-weight: bold; letter-spacing: 8px; margin: 20px 0; border-radius: 5px; }
-                    .footer { text-align: center; margin-top: 20px; color: #666; font-size: 12px; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>🔐 Email Verification</h1>
-                    </div>
-                    <div class="content">
-                        <p>Welcome to Crypto Blog!</p>
-                        <p>Use the verification code below to complete your registration:</p>
-                        <div class="otp-box">%s</div>
-                        <p><strong>This code will expire in %d minutes.</strong></p>
-                        <p>If you didn't request this code, please ignore this email.</p>
-                    </div>
-                    <div class="footer">
-                        <p>© 2025 Crypto Blog. All rights reserved.</p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """, otp, expiryMinutes);
-    }
-
-    private static class OtpData {
-        String otp;
-        Instant expireAt;
-
-        OtpData(String otp, Instant expireAt) {
-            this.otp = otp;
-            this.expireAt = expireAt;
-        }
-    }
-}
\ No newline at end of file
+}
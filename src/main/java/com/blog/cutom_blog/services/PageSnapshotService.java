@@ -0,0 +1,232 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
+import com.blog.cutom_blog.dtos.PostResponse;
+import com.blog.cutom_blog.enums.ECategory;
+import com.blog.cutom_blog.events.PostChangedEvent;
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.repositories.PostRepository;
+import com.blog.cutom_blog.repositories.projections.PostFeedVersionView;
+import com.blog.cutom_blog.utils.HttpValidators;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Server-side rendered public pages: the article page of every published post, the home feed and the category
+ * listings.
+ * <p>
+ * Rendered HTML is kept in memory, so a page view is answered from a prebuilt page without template evaluation or a
+ * database hit. Any change to a published post drops every page, because listings and related-post blocks can show
+ * any published post; the changed post and the home page are rendered again right away and the rest on their next
+ * view. Drafts appear on none of these pages, so their changes keep them. Pages also show author names and counts
+ * that change without a post event, so every page expires after a fixed time.
+ * <p>
+ * Article pages are also written to a snapshot directory and survive restarts as long as they are younger than that
+ * and no published post has changed since they were written, because their related-post block can show any of them.
+ * Listings are cheap to rebuild and cannot be validated against a single post, so they are only kept in memory.
+ */
+@Slf4j
+@Service
+public class PageSnapshotService {
+    // Same page sizes as the client-side feed and category filter in posts.js
+    private static final int HOME_PAGE_SIZE = 6;
+    private static final int CATEGORY_PAGE_SIZE = 100;
+    private static final int RELATED_POSTS = 3;
+    private static final String HOME_PAGE = "index";
+    private static final String POST_PAGES = "posts/";
+    private static final String CATEGORY_PAGES = "categories/";
+    // Only slugs generateSlug can produce are snapshotted, which also keeps request input out of file paths
+    private static final Pattern SNAPSHOT_SLUG = Pattern.compile("[a-z0-9-]{1,200}");
+
+    private final ITemplateEngine templateEngine;
+    private final PostService postService;
+    private final PostRepository postRepository;
+    private final Path snapshotDir;
+    private final Duration ttl;
+    private final Cache<String, String> pages;
+
+    public PageSnapshotService(ITemplateEngine templateEngine,
+                               PostService postService,
+                               PostRepository postRepository,
+                               CacheRegistry cacheRegistry,
+                               @Value("${app.pages.snapshot-dir:${user.home}/cutom-blog-pages}") String snapshotDir,
+                               @Value("${app.pages.cache.max-size-mb:32}") long maxSizeMb,
+                               @Value("${app.pages.ttl:PT10M}") Duration ttl) {
+        this.templateEngine = templateEngine;
+        this.postService = postService;
+        this.postRepository = postRepository;
+        this.snapshotDir = Paths.get(snapshotDir);
+        this.ttl = ttl;
+        this.pages = cacheRegistry.register("pages", Caffeine.newBuilder()
+            .maximumWeight(maxSizeMb * 1024 * 1024)
+            .expireAfterWrite(ttl)
+            .weigher((String key, String html) -> html.length() * 2)
+            .recordStats()
+            .build());
+        try {
+            Files.createDirectories(this.snapshotDir.resolve(POST_PAGES));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create page snapshot directory!", e);
+        }
+    }
+
+    public String getHomePage() {
+        return pages.get(HOME_PAGE, key -> {
+            Context context = newContext();
+            context.setVariable("posts", postService.toPostSummaries(postService.getAllPublishedPosts(0, HOME_PAGE_SIZE)));
+            return templateEngine.process("index", context);
+        });
+    }
+
+    public String getCategoryPage(ECategory category) {
+        return pages.get(categoryKey(category), key -> {
+            Context context = newContext();
+            context.setVariable("category", category);
+            context.setVariable("posts", postService.toPostSummaries(
+                postService.getPublishedPostsByCategory(category, 0, CATEGORY_PAGE_SIZE)));
+            return templateEngine.process("index", context);
+        });
+    }
+
+    /**
+     * Article page of a published post, or empty when the slug does not belong to one.
+     */
+    public Optional<String> getPostPage(String slug) {
+        if (!SNAPSHOT_SLUG.matcher(slug).matches()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(pages.get(POST_PAGES + slug, this::loadPostPage));
+    }
+
+    /**
+     * Client-rendered article page, for posts that are not published.
+     */
+    public String renderPostShell(String slug) {
+        Context context = newContext();
+        context.setVariable("slug", slug);
+        return templateEngine.process("post", context);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.getPreviousStatus() != Post.PostStatus.PUBLISHED && event.getStatus() != Post.PostStatus.PUBLISHED) {
+            return;
+        }
+
+        pages.invalidateAll();
+        try (Stream<Path> files = Files.list(snapshotDir.resolve(POST_PAGES))) {
+            files.forEach(PageSnapshotService::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Failed to clear post page snapshots: {}", e.getMessage());
+        }
+
+        if (event.getType() != PostChangedEvent.Type.DELETED && event.getStatus() == Post.PostStatus.PUBLISHED
+            && event.getSlug() != null) {
+            getPostPage(event.getSlug());
+        }
+        getHomePage();
+    }
+
+    private String loadPostPage(String key) {
+        Post post = postRepository.findBySlug(key.substring(POST_PAGES.length()))
+            .filter(found -> found.getStatus() == Post.PostStatus.PUBLISHED)
+            .orElse(null);
+        if (post == null) {
+            deleteSnapshot(key);
+            return null;
+        }
+
+        Path file = snapshotFile(key);
+        String header = snapshotHeader(postService.getPublishedFeedVersion());
+        try {
+            if (Files.exists(file)
+                && Files.getLastModifiedTime(file).toMillis() >= System.currentTimeMillis() - ttl.toMillis()) {
+                String snapshot = Files.readString(file, StandardCharsets.UTF_8);
+                if (snapshot.startsWith(header)) {
+                    return snapshot.substring(header.length());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read page snapshot {}: {}", file, e.getMessage());
+        }
+
+        PostResponse response = postService.toPostResponse(post);
+        Context context = newContext();
+        context.setVariable("post", response);
+        context.setVariable("relatedPosts", postService.getRelatedPosts(response, RELATED_POSTS));
+        String html = templateEngine.process("post", context);
+        writeSnapshot(key, header + html);
+        return html;
+    }
+
+    /**
+     * First line of a post snapshot, naming the published feed it was rendered against. The count catches
+     * unpublished and deleted posts, which the latest update time alone would miss.
+     */
+    private static String snapshotHeader(PostFeedVersionView version) {
+        LocalDateTime lastModified = version.getLastModified();
+        return "<!-- feed " + version.getPostCount() + "-"
+            + (lastModified != null ? HttpValidators.toEpochMillis(lastModified) : 0) + " -->\n";
+    }
+
+    private Context newContext() {
+        Context context = new Context(Locale.US);
+        context.setVariables(Map.of("categories", Arrays.asList(ECategory.values())));
+        return context;
+    }
+
+    /**
+     * Written to a temporary file and moved into place so the snapshot is never seen half written.
+     */
+    private void writeSnapshot(String key, String html) {
+        Path file = snapshotFile(key);
+        try {
+            Path temp = Files.createTempFile(file.getParent(), "page", ".tmp");
+            Files.writeString(temp, html, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write page snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void deleteSnapshot(String key) {
+        deleteQuietly(snapshotFile(key));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete page snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path snapshotFile(String key) {
+        return snapshotDir.resolve(key + ".html");
+    }
+
+    private static String categoryKey(ECategory category) {
+        return CATEGORY_PAGES + category.name().toLowerCase();
+    }
+}
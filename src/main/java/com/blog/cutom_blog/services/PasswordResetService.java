@@ -2,6 +2,7 @@ package com.blog.cutom_blog.services;
 
 import com.blog.cutom_blog.commons.comms.dtos.SendOtpResponse;
 import com.blog.cutom_blog.config.AppProperties;
+import com.blog.cutom_blog.config.security_configuration.UserDetailsServiceImpl;
 import com.blog.cutom_blog.exceptions.ForbiddenException;
 import com.blog.cutom_blog.exceptions.NotFoundException;
 import com.blog.cutom_blog.models.User;
@@ -18,15 +19,21 @@ public class PasswordResetService {
     private final OtpService otpService;
     private final PasswordEncoder passwordEncoder;
     private final AppProperties appProperties;
+    private final TokenVersionService tokenVersionService;
+    private final UserDetailsServiceImpl userDetailsService;
 
     public PasswordResetService(UserRepository userRepository,
                                 OtpService otpService,
                                 PasswordEncoder passwordEncoder,
-                                AppProperties appProperties) {
+                                AppProperties appProperties,
+                                TokenVersionService tokenVersionService,
+                                UserDetailsServiceImpl userDetailsService) {
         this.userRepository = userRepository;
         this.otpService = otpService;
         this.passwordEncoder = passwordEncoder;
         this.appProperties = appProperties;
+        this.tokenVersionService = tokenVersionService;
+        this.userDetailsService = userDetailsService;
     }
 
     public SendOtpResponse initiatePasswordReset(String email) {
@@ -66,7 +73,11 @@ public class PasswordResetService {
 
         // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
+        // Sessions opened with the old password must not survive the reset
+        tokenVersionService.revokeTokens(user);
         userRepository.save(user);
+        tokenVersionService.evict(user.getId());
+        userDetailsService.evict(user.getId());
 
         log.info("Password reset successful for user: {}", email);
     }
@@ -0,0 +1,78 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
+import com.blog.cutom_blog.dtos.PostResponse;
+import com.blog.cutom_blog.events.PostChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of fully assembled {@link PostResponse}s keyed by slug and by id.
+ * <p>
+ * Entries are weighed by body size and expire after a TTL; they are also evicted as soon as a change to the
+ * post commits. Loads run inside the cache's per-key computation and an invalidation of a key that is being
+ * loaded waits for the load to finish before removing it, so a post hidden while a reader is loading it can
+ * never be left behind in the cache.
+ */
+@Component
+public class PostResponseCache {
+    // Rough fixed cost of the response object graph besides its text
+    private static final int ENTRY_OVERHEAD_BYTES = 1024;
+
+    private final Cache<String, PostResponse> bySlug;
+    private final Cache<String, PostResponse> byId;
+
+    public PostResponseCache(CacheRegistry cacheRegistry,
+                             @Value("${app.cache.posts.max-size-mb:64}") long maxSizeMb,
+                             @Value("${app.cache.posts.ttl:PT10M}") Duration ttl) {
+        // Each cache gets half of the budget
+        long maxWeight = maxSizeMb * 1024 * 1024 / 2;
+        this.bySlug = cacheRegistry.register("postsBySlug", newCache(maxWeight, ttl));
+        this.byId = cacheRegistry.register("postsById", newCache(maxWeight, ttl));
+    }
+
+    public Optional<PostResponse> getBySlug(String slug, Function<String, Optional<PostResponse>> loader) {
+        return Optional.ofNullable(bySlug.get(slug, key -> loader.apply(key).orElse(null)));
+    }
+
+    public Optional<PostResponse> getById(String id, Function<String, Optional<PostResponse>> loader) {
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        byId.invalidate(event.getPostId());
+        if (event.getPreviousSlug() != null) {
+            bySlug.invalidate(event.getPreviousSlug());
+        }
+        if (event.getSlug() != null) {
+            bySlug.invalidate(event.getSlug());
+        }
+    }
+
+    private static Cache<String, PostResponse> newCache(long maxWeight, Duration ttl) {
+        return Caffeine.newBuilder()
+            .maximumWeight(maxWeight)
+            .weigher((String key, PostResponse post) -> weigh(post))
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    private static int weigh(PostResponse post) {
+        long chars = length(post.getContent()) + length(post.getTitle()) + length(post.getExcerpt())
+            + length(post.getMetaDescription()) + length(post.getFeaturedImage());
+        return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + chars * 2);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,97 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.dtos.PostSearchResponse;
+import com.blog.cutom_blog.dtos.PostSummaryResponse;
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.repositories.PostRepository;
+import com.blog.cutom_blog.repositories.projections.PostSearchHitView;
+import com.blog.cutom_blog.repositories.projections.PostSummaryView;
+import com.blog.cutom_blog.utils.StringUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over published posts backed by the Postgres search_vector column.
+ * Every term is matched as a prefix, so partially typed words in the search box already return results.
+ * When {@code app.search.in-memory.enabled} is set and {@link InMemoryPostIndex} has finished building,
+ * searches are answered from memory instead.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostSearchService {
+    private static final int MAX_TERMS = 8;
+
+    private final PostRepository postRepository;
+    private final PostService postService;
+    private final ObjectProvider<InMemoryPostIndex> inMemoryPostIndex;
+
+    public Page<PostSearchResponse> search(String keyword, int page, int size) {
+        InMemoryPostIndex index = inMemoryPostIndex.getIfAvailable();
+        if (index != null && index.isReady()) {
+            return index.search(keyword, page, size);
+        }
+
+        Pageable pageable = PageRequest.of(page, size);
+        String query = toPrefixQuery(keyword);
+        if (query.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        String status = Post.PostStatus.PUBLISHED.name();
+        List<PostSearchHitView> hits = postRepository.searchFullText(status, query, size, pageable.getOffset());
+
+        Map<String, PostSummaryView> summaries = postRepository.findSummariesByIdIn(
+                hits.stream().map(PostSearchHitView::getId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(PostSummaryView::getId, Function.identity()));
+
+        // Keep rank order; a post deleted between the two queries is simply dropped
+        List<PostSearchHitView> found = new ArrayList<>();
+        List<PostSummaryView> ordered = new ArrayList<>();
+        for (PostSearchHitView hit : hits) {
+            PostSummaryView summary = summaries.get(hit.getId());
+            if (summary != null) {
+                found.add(hit);
+                ordered.add(summary);
+            }
+        }
+
+        List<PostSummaryResponse> responses = postService.toPostSummaries(ordered);
+        List<PostSearchResponse> results = new ArrayList<>(responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            results.add(PostSearchResponse.builder()
+                .post(responses.get(i))
+                .rank(found.get(i).getRank())
+                .highlight(found.get(i).getHighlight())
+                .build());
+        }
+
+        // The COUNT query is skipped when the page itself shows the result set is exhausted
+        return PageableExecutionUtils.getPage(results, pageable, () -> postRepository.countFullText(status, query));
+    }
+
+    /**
+     * Turns free text into a to_tsquery expression where every word is a prefix term, e.g. "bitcoin etf"
+     * becomes "bitcoin:* &amp; etf:*". Punctuation is dropped by the tokenizer, which also keeps tsquery
+     * operators typed by the user out of the query.
+     */
+    static String toPrefixQuery(String keyword) {
+        return StringUtils.tokenize(keyword).stream()
+            .limit(MAX_TERMS)
+            .map(term -> term + ":*")
+            .collect(Collectors.joining(" & "));
+    }
+}
@@ -2,26 +2,50 @@ package com.blog.cutom_blog.services;
 
 
 import com.blog.cutom_blog.dtos.PostRequest;
+import com.blog.cutom_blog.dtos.PostFeedResponse;
 import com.blog.cutom_blog.dtos.PostResponse;
+import com.blog.cutom_blog.dtos.PostSummaryResponse;
 import com.blog.cutom_blog.enums.ECategory;
+import com.blog.cutom_blog.events.PostChangedEvent;
 import com.blog.cutom_blog.models.Post;
 import com.blog.cutom_blog.models.User;
 import com.blog.cutom_blog.repositories.PostRepository;
 import com.blog.cutom_blog.repositories.UserRepository;
+import com.blog.cutom_blog.repositories.projections.AuthorView;
+import com.blog.cutom_blog.repositories.projections.PostFeedVersionView;
+import com.blog.cutom_blog.repositories.projections.PostSummaryView;
+import com.blog.cutom_blog.repositories.projections.PostVersionView;
+import com.blog.cutom_blog.utils.FeedCursor;
+import com.blog.cutom_blog.utils.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 
 @Service
 public class PostService {
+    // Length of the excerpt derived from the body of posts that have none
+    private static final int EXCERPT_LENGTH = 150;
+    private static final String SLUG_CONSTRAINT = "uk_posts_slug";
+    private static final int SLUG_ATTEMPTS = 5;
 
     @Autowired
     private PostRepository postRepository;
@@ -32,9 +56,69 @@ public class PostService {
     @Autowired
     private EmailNotificationService emailNotificationService;
 
-    public Page<Post> getAllPublishedPosts(int page, int size) {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PostResponseCache postResponseCache;
+
+    @Autowired
+    private PostViewCounter postViewCounter;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public Page<PostSummaryView> getAllPublishedPosts(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("publishedAt").descending());
+        return postRepository.findSummariesByStatus(Post.PostStatus.PUBLISHED, pageable);
+    }
+
+    public Page<PostSummaryView> getPublishedPostsByCategory(ECategory category, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("publishedAt").descending());
-        return postRepository.findByStatus(Post.PostStatus.PUBLISHED, pageable);
+        return postRepository.findSummariesByStatusAndCategory(Post.PostStatus.PUBLISHED, category, pageable);
+    }
+
+    /**
+     * Latest published posts in the same category as the given one, topped up with the latest posts overall.
+     */
+    public List<PostSummaryResponse> getRelatedPosts(PostResponse post, int limit) {
+        Pageable pageable = PageRequest.of(0, limit + 1, Sort.by("publishedAt").descending());
+        Map<String, PostSummaryView> related = new LinkedHashMap<>();
+        ECategory category = post.getCategory() != null ? post.getCategory().getCategory() : null;
+        if (category != null) {
+            postRepository.findSummariesByStatusAndCategory(Post.PostStatus.PUBLISHED, category, pageable)
+                .forEach(summary -> related.put(summary.getId(), summary));
+        }
+        if (related.size() <= limit) {
+            postRepository.findSummariesByStatus(Post.PostStatus.PUBLISHED, pageable)
+                .forEach(summary -> related.putIfAbsent(summary.getId(), summary));
+        }
+        related.remove(post.getId());
+        return toPostSummaries(related.values().stream().limit(limit).collect(Collectors.toList()));
+    }
+
+    /**
+     * Keyset-paginated published feed. Each slice costs one index range scan regardless of depth and no COUNT query.
+     *
+     * @param after cursor returned with the previous slice, or blank for the newest posts
+     */
+    public Slice<PostSummaryView> getPublishedFeed(String after, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        if (after == null || after.isBlank()) {
+            return postRepository.findSummaryFeed(Post.PostStatus.PUBLISHED, pageable);
+        }
+        FeedCursor cursor = FeedCursor.decode(after);
+        return postRepository.findSummaryFeedAfter(
+            Post.PostStatus.PUBLISHED, cursor.getPublishedAt(), cursor.getId(), pageable);
     }
 
 //    public Page<Post> getPostsByCategory(ECategory category, int page, int size) {
@@ -47,12 +131,6 @@ public class PostService {
 //        return postRepository.findByStatusAndTagId(Post.PostStatus.PUBLISHED, tagId, pageable);
 //    }
 
-    public Page<Post> searchPosts(String keyword, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("publishedAt").descending());
-        return postRepository.findByStatusAndTitleContainingOrContentContaining(
-            Post.PostStatus.PUBLISHED, keyword, pageable);
-    }
-
     public Optional<Post> getPostBySlug(String slug) {
         return postRepository.findBySlug(slug);
     }
@@ -61,7 +139,42 @@ public class PostService {
         return postRepository.findById(id);
     }
 
+    public Optional<PostResponse> getPostResponseBySlug(String slug) {
+        return postResponseCache.getBySlug(slug, key -> postRepository.findBySlug(key).map(this::toPostResponse))
+            .map(this::withCurrentViewCount);
+    }
+
+    public Optional<PostResponse> getPostResponseById(String id) {
+        return postResponseCache.getById(id, key -> postRepository.findById(key).map(this::toPostResponse))
+            .map(this::withCurrentViewCount);
+    }
+
+    public void recordView(String postId) {
+        postViewCounter.recordView(postId);
+    }
+
+    // Cached responses are shared between requests, so the live count goes on a copy
+    private PostResponse withCurrentViewCount(PostResponse post) {
+        return post.toBuilder().viewCount(postViewCounter.getViewCount(post.getId())).build();
+    }
+
+    public Optional<PostVersionView> getPostVersionBySlug(String slug) {
+        return postRepository.findVersionBySlug(slug);
+    }
+
+    public Optional<PostVersionView> getPostVersionById(String id) {
+        return postRepository.findVersionById(id);
+    }
+
+    public PostFeedVersionView getPublishedFeedVersion() {
+        return postRepository.findFeedVersion(Post.PostStatus.PUBLISHED);
+    }
+
     public Post createPost(PostRequest postRequest, String username) {
+        return withSlugRetry(() -> insertPost(postRequest, username));
+    }
+
+    private Post insertPost(PostRequest postRequest, String username) {
         User author = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -75,7 +188,7 @@ public class PostService {
         post.setMetaKeywords(postRequest.getMetaKeywords());
         post.setFeaturedImage(postRequest.getFeaturedImage());
         post.setAuthorId(author.getId());
-        post.setSlug(generateSlug(postRequest.getTitle()));
+        post.setSlug(generateUniqueSlug(postRequest.getTitle(), null));
 
         post.setStatus(Post.PostStatus.valueOf(postRequest.getStatus().toUpperCase()));
         if (post.getStatus() == Post.PostStatus.PUBLISHED) {
@@ -90,13 +203,22 @@ public class PostService {
             }
         }
 
-        return postRepository.save(post);
+        Post savedPost = postRepository.saveAndFlush(post);
+        eventPublisher.publishEvent(PostChangedEvent.created(savedPost));
+        return savedPost;
     }
 
     public Post updatePost(String id, PostRequest postRequest) {
+        return withSlugRetry(() -> applyUpdate(id, postRequest));
+    }
+
+    private Post applyUpdate(String id, PostRequest postRequest) {
         Post post = postRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Post not found"));
 
+        String previousSlug = post.getSlug();
+        Post.PostStatus previousStatus = post.getStatus();
+
         post.setTitle(postRequest.getTitle());
         post.setSubtitle(postRequest.getSubtitle());
         post.setContent(postRequest.getContent());
@@ -105,7 +227,7 @@ public class PostService {
         post.setMetaDescription(postRequest.getMetaDescription());
         post.setMetaKeywords(postRequest.getMetaKeywords());
         post.setFeaturedImage(postRequest.getFeaturedImage());
-        post.setSlug(generateSlug(postRequest.getTitle()));
+        post.setSlug(generateUniqueSlug(postRequest.getTitle(), post.getId()));
 
         Post.PostStatus newStatus = Post.PostStatus.valueOf(postRequest.getStatus().toUpperCase());
         if (post.getStatus() != newStatus) {
@@ -123,11 +245,17 @@ public class PostService {
             }
         }
 
-        return postRepository.save(post);
+        Post savedPost = postRepository.saveAndFlush(post);
+        eventPublisher.publishEvent(PostChangedEvent.updated(savedPost, previousSlug, previousStatus));
+        return savedPost;
     }
 
+    @Transactional
     public void deletePost(String id) {
-        postRepository.deleteById(id);
+        postRepository.findById(id).ifPresent(post -> {
+            postRepository.delete(post);
+            eventPublisher.publishEvent(PostChangedEvent.deleted(post));
+        });
     }
 
     public Page<Post> getPostsByAuthor(String username, int page, int size) {
@@ -138,6 +266,7 @@ public class PostService {
         return postRepository.findByAuthorId(author.getId(), pageable);
     }
 
+    @Transactional
     public Post changePostStatus(String postId, Post.PostStatus newStatus) {
         Post post = postRepository.findById(postId)
             .orElseThrow(() -> new RuntimeException("Post not found"));
@@ -156,44 +285,85 @@ public class PostService {
         }
 
         Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(PostChangedEvent.updated(savedPost, savedPost.getSlug(), oldStatus));
 
-        // Send email notifications to subscribers when publishing a new post
+        // Subscribers are notified in the background once the publish commits
         if (isNewlyPublished) {
-            try {
-                emailNotificationService.notifySubscribersOfNewPost(savedPost);
-            } catch (Exception e) {
-                // Log error but don't fail the post publication
-                // The notification can be retried or sent manually
-            }
+            emailNotificationService.enqueueNewPostNotification(savedPost);
         }
 
         return savedPost;
     }
 
+    @Transactional
     public Post hidePost(String postId) {
         return changePostStatus(postId, Post.PostStatus.ARCHIVED);
     }
 
+    @Transactional
     public Post publishPost(String postId) {
         return changePostStatus(postId, Post.PostStatus.PUBLISHED);
     }
 
+    @Transactional
     public Post draftPost(String postId) {
         return changePostStatus(postId, Post.PostStatus.DRAFT);
     }
 
-    public Page<Post> getAllPostsByStatus(Post.PostStatus status, int page, int size) {
+    public Page<PostSummaryView> getAllPostsByStatus(Post.PostStatus status, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return postRepository.findByStatus(status, pageable);
+        return postRepository.findSummariesByStatus(status, pageable);
     }
 
     public Long countPostsByStatus(Post.PostStatus status) {
         return postRepository.countByStatus(status);
     }
 
-    public Page<Post> getPostsByStatuses(List<Post.PostStatus> statuses, int page, int size) {
+    public Page<PostSummaryView> getPostsByStatuses(List<Post.PostStatus> statuses, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return postRepository.findByStatusIn(statuses, pageable);
+        return postRepository.findSummariesByStatusIn(statuses, pageable);
+    }
+
+    /**
+     * Runs a write that picks a slug in a transaction of its own. The slug is checked before it is written, so a
+     * concurrent write can take it in between; the unique constraint then rejects the write and it is run again,
+     * which sees the slug taken and moves on to the next suffix.
+     */
+    private Post withSlugRetry(Supplier<Post> write) {
+        // A write joining an outer transaction cannot be retried, the failed insert has already aborted it
+        int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : SLUG_ATTEMPTS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> write.get());
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= attempts || !isSlugConflict(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean isSlugConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(SLUG_CONSTRAINT);
+    }
+
+    /**
+     * Slug of the title, suffixed with -2, -3, ... when another post already has it. Slugs are unique in the schema.
+     */
+    private String generateUniqueSlug(String title, String postId) {
+        String base = generateSlug(title);
+        if (base.isEmpty()) {
+            base = "post";
+        }
+        String slug = base;
+        for (int suffix = 2; ; suffix++) {
+            Optional<PostVersionView> existing = postRepository.findVersionBySlug(slug);
+            if (existing.isEmpty() || existing.get().getId().equals(postId)) {
+                return slug;
+            }
+            slug = base + "-" + suffix;
+        }
     }
 
     private String generateSlug(String title) {
@@ -204,43 +374,118 @@ public class PostService {
     }
 
     public PostResponse toPostResponse(Post post) {
-        User author = userRepository.findById(post.getAuthorId()).orElse(null);
-
-        PostResponse.CategoryDTO categoryDTO = null;
-        if (post.getCategory() != null) {
-            categoryDTO = PostResponse.CategoryDTO.builder()
-                .name(post.getCategory().getDisplayName())
-                .description(post.getCategory().getDescription())
-                .category(post.getCategory())
-                .build();
-        }
+        return toPostResponse(post, authorService.getAuthor(post.getAuthorId()).orElse(null));
+    }
+
+    /**
+     * Assembles a page of list responses, resolving every author and comment count on the page with at most one
+     * query each instead of one lookup per post.
+     */
+    public Page<PostSummaryResponse> toPostSummaries(Page<PostSummaryView> posts) {
+        return new PageImpl<>(toPostSummaries(posts.getContent()), posts.getPageable(), posts.getTotalElements());
+    }
+
+    public List<PostSummaryResponse> toPostSummaries(List<PostSummaryView> posts) {
+        return toPostSummaries(posts, counterService.getCommentCounts(posts.stream()
+            .map(PostSummaryView::getId)
+            .collect(Collectors.toList())));
+    }
+
+    /**
+     * Same as {@link #toPostSummaries(List)} with comment counts the caller already has, e.g. kept in memory.
+     */
+    public List<PostSummaryResponse> toPostSummaries(List<PostSummaryView> posts, Map<String, Long> commentCounts) {
+        Map<String, AuthorView> authors = authorService.getAuthors(posts.stream()
+            .map(PostSummaryView::getAuthorId)
+            .collect(Collectors.toList()));
+        return posts.stream()
+            .map(post -> toPostSummaryResponse(post, authors.get(post.getAuthorId()),
+                commentCounts.getOrDefault(post.getId(), 0L)))
+            .collect(Collectors.toList());
+    }
+
+    public PostFeedResponse toPostFeed(Slice<PostSummaryView> slice) {
+        List<PostSummaryView> posts = slice.getContent();
 
-        PostResponse.AuthorDTO authorDTO = null;
-        if (author != null) {
-            authorDTO = PostResponse.AuthorDTO.builder()
-                .id(author.getId())
-                .username(author.getUsername())
-                .firstName(author.getFirstName())
-                .lastName(author.getLastName())
-                .email(author.getEmail())
-                .build();
+        String nextCursor = null;
+        if (slice.hasNext() && !posts.isEmpty()) {
+            PostSummaryView last = posts.get(posts.size() - 1);
+            nextCursor = new FeedCursor(last.getPublishedAt(), last.getId()).encode();
         }
 
+        return PostFeedResponse.builder()
+            .content(toPostSummaries(posts))
+            .size(slice.getSize())
+            .hasNext(slice.hasNext())
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    private PostSummaryResponse toPostSummaryResponse(PostSummaryView post, AuthorView author, long commentCount) {
+        return PostSummaryResponse.builder()
+            .id(post.getId())
+            .title(post.getTitle())
+            .subtitle(post.getSubtitle())
+            .excerpt(post.getExcerpt() != null
+                ? post.getExcerpt()
+                : StringUtils.excerpt(post.getContentPreview(), EXCERPT_LENGTH))
+            .slug(post.getSlug())
+            .category(toCategoryDTO(post.getCategory()))
+            .featuredImage(post.getFeaturedImage())
+            .featuredImageSrcset(imageService.getSrcset(post.getFeaturedImage()))
+            .status(com.blog.cutom_blog.enums.EStatus.valueOf(post.getStatus().name()))
+            .author(toAuthorDTO(author))
+            .viewCount(postViewCounter.getViewCount(post.getId()))
+            .commentCount(commentCount)
+            .createdAt(post.getCreatedAt())
+            .updatedAt(post.getUpdatedAt())
+            .publishedAt(post.getPublishedAt())
+            .metaTitle(post.getMetaTitle())
+            .metaDescription(post.getMetaDescription())
+            .build();
+    }
+
+    private PostResponse toPostResponse(Post post, AuthorView author) {
         return PostResponse.builder()
             .id(post.getId())
             .title(post.getTitle())
             .content(post.getContent())
             .excerpt(post.getExcerpt())
             .slug(post.getSlug())
-            .category(categoryDTO)
+            .category(toCategoryDTO(post.getCategory()))
             .featuredImage(post.getFeaturedImage())
+            .featuredImageSrcset(imageService.getSrcset(post.getFeaturedImage()))
             .status(com.blog.cutom_blog.enums.EStatus.valueOf(post.getStatus().name()))
-            .author(authorDTO)
-            .viewCount(0)
+            .author(toAuthorDTO(author))
+            .viewCount(postViewCounter.getViewCount(post.getId()))
             .createdAt(post.getCreatedAt())
             .updatedAt(post.getUpdatedAt())
             .publishedAt(post.getPublishedAt())
             .metaDescription(post.getMetaDescription())
             .build();
     }
+
+    private PostResponse.CategoryDTO toCategoryDTO(ECategory category) {
+        if (category == null) {
+            return null;
+        }
+        return PostResponse.CategoryDTO.builder()
+            .name(category.getDisplayName())
+            .description(category.getDescription())
+            .category(category)
+            .build();
+    }
+
+    private PostResponse.AuthorDTO toAuthorDTO(AuthorView author) {
+        if (author == null) {
+            return null;
+        }
+        return PostResponse.AuthorDTO.builder()
+            .id(author.getId())
+            .username(author.getUsername())
+            .firstName(author.getFirstName())
+            .lastName(author.getLastName())
+            .email(author.getEmail())
+            .build();
+    }
 }
\ No newline at end of file
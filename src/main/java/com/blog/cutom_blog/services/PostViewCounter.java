@@ -0,0 +1,115 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.events.PostChangedEvent;
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.repositories.PostStatsRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind post view counter.
+ * <p>
+ * A view only increments a per-post {@link LongAdder}, so recording one never touches the database and concurrent
+ * views of the same post do not contend. Pending deltas are upserted into {@code post_stats} in one batch every few
+ * seconds and once more on shutdown. Reads add pending views to the last persisted total. Views are recorded from a
+ * public endpoint, so only ids of published posts get a counter; they are loaded at startup and kept current from
+ * {@link PostChangedEvent}s, which bounds the counters by the number of posts whatever ids are sent.
+ */
+@Slf4j
+@Service
+public class PostViewCounter {
+    private final PostStatsRepository postStatsRepository;
+    private final Set<String> publishedPosts = ConcurrentHashMap.newKeySet();
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final Map<String, Long> persisted = new ConcurrentHashMap<>();
+
+    public PostViewCounter(PostStatsRepository postStatsRepository) {
+        this.postStatsRepository = postStatsRepository;
+    }
+
+    public void recordView(String postId) {
+        LongAdder counter = pending.get(postId);
+        if (counter == null) {
+            if (!publishedPosts.contains(postId)) {
+                return;
+            }
+            counter = pending.computeIfAbsent(postId, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public long getViewCount(String postId) {
+        LongAdder counter = pending.get(postId);
+        return persisted.getOrDefault(postId, 0L) + (counter != null ? counter.sum() : 0L);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPublishedPosts() {
+        publishedPosts.addAll(postStatsRepository.findPublishedPostIds());
+        persisted.putAll(postStatsRepository.findAllViewCounts());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.getType() != PostChangedEvent.Type.DELETED && event.getStatus() == Post.PostStatus.PUBLISHED) {
+            publishedPosts.add(event.getPostId());
+        } else {
+            // Views already pending for an unpublished post are still flushed
+            publishedPosts.remove(event.getPostId());
+        }
+        if (event.getType() == PostChangedEvent.Type.DELETED) {
+            pending.remove(event.getPostId());
+            persisted.remove(event.getPostId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.views.flush-interval:PT5S}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Synchronized only against other flushes; recording views never waits on it.
+     */
+    synchronized void flush() {
+        Map<String, Long> deltas = new HashMap<>();
+        pending.forEach((postId, counter) -> {
+            // sumThenReset swaps each cell to zero atomically, so views landing meanwhile go to the next flush
+            long delta = counter.sumThenReset();
+            if (delta > 0) {
+                deltas.put(postId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, Long> totals = postStatsRepository.addViews(deltas);
+            persisted.putAll(totals);
+            // Ids the upsert did not return belong to no post; stop tracking them
+            deltas.keySet().stream()
+                .filter(postId -> !totals.containsKey(postId))
+                .forEach(pending::remove);
+        } catch (Exception e) {
+            log.warn("Failed to flush {} post view counts, retrying on the next flush: {}", deltas.size(), e.getMessage());
+            deltas.forEach((postId, delta) -> pending.computeIfAbsent(postId, key -> new LongAdder()).add(delta));
+        }
+    }
+}
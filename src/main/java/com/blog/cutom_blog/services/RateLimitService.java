@@ -0,0 +1,123 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.commons.ratelimit.RateLimitStore;
+import com.blog.cutom_blog.enums.ERateLimit;
+import com.blog.cutom_blog.exceptions.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client rate limits on write paths, checked before a request does any database work.
+ * <p>
+ * Each limited path names the clients it is counted against, such as the signed-in user and the remote address;
+ * every one of them has its own bucket and all must have a permit left. A throttled request fails with
+ * {@link TooManyRequestsException}, which is answered with 429 and a {@code Retry-After} header.
+ */
+@Slf4j
+@Service
+public class RateLimitService {
+    // Keys come from request input and end up in the store, so their length is bounded
+    private static final int MAX_CLIENT_LENGTH = 255;
+
+    private final RateLimitStore rateLimitStore;
+    private final Map<ERateLimit, Policy> policies = new EnumMap<>(ERateLimit.class);
+    private final Map<ERateLimit, LongAdder> allowed = new EnumMap<>(ERateLimit.class);
+    private final Map<ERateLimit, LongAdder> throttled = new EnumMap<>(ERateLimit.class);
+    private final LongAdder storeFailures = new LongAdder();
+    private final LongAdder swept = new LongAdder();
+
+    public RateLimitService(RateLimitStore rateLimitStore, Environment environment) {
+        this.rateLimitStore = rateLimitStore;
+        for (ERateLimit limit : ERateLimit.values()) {
+            String prefix = "app.rate-limit." + limit.getKey();
+            int permits = environment.getProperty(prefix + ".permits", Integer.class, limit.getDefaultPermits());
+            Duration period = environment.getProperty(prefix + ".period", Duration.class, limit.getDefaultPeriod());
+            if (permits < 1 || period.isNegative() || period.isZero()) {
+                throw new IllegalStateException(prefix + " needs at least one permit over a positive period");
+            }
+            policies.put(limit, new Policy(permits, period, Math.max(period.toMillis() / permits, 1)));
+            allowed.put(limit, new LongAdder());
+            throttled.put(limit, new LongAdder());
+        }
+    }
+
+    /**
+     * Takes a permit for each client, for example {@code "user:" + userId} and {@code "ip:" + remoteAddress}.
+     * Null clients are skipped. Permits taken before a client runs out are not given back.
+     *
+     * @throws TooManyRequestsException when any client has no permit left
+     */
+    public void acquire(ERateLimit limit, String... clients) {
+        Policy policy = policies.get(limit);
+        for (String client : clients) {
+            if (client == null) {
+                continue;
+            }
+            long waitMillis = acquire(limit.getKey() + ":" + normalize(client), policy);
+            if (waitMillis > 0) {
+                throttled.get(limit).increment();
+                log.warn("Rate limit {} exceeded by {}, retry in {} ms", limit.getKey(), client, waitMillis);
+                throw new TooManyRequestsException("Rate limit " + limit.getKey() + " exceeded",
+                    "Too many requests. Please wait a moment and try again.", Duration.ofMillis(waitMillis));
+            }
+        }
+        allowed.get(limit).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval:PT1M}")
+    public void removeExpiredBuckets() {
+        try {
+            swept.add(rateLimitStore.removeExpired());
+        } catch (Exception e) {
+            log.warn("Failed to remove refilled rate limit buckets: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Allowed and throttled requests per limit since startup, for the admin dashboard.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", rateLimitStore.getClass().getSimpleName());
+        stats.put("buckets", rateLimitStore.size());
+        stats.put("bucketsRemoved", swept.sum());
+        stats.put("storeFailures", storeFailures.sum());
+        policies.forEach((limit, policy) -> {
+            Map<String, Object> limitStats = new LinkedHashMap<>();
+            limitStats.put("permits", policy.permits());
+            limitStats.put("period", policy.period().toString());
+            limitStats.put("allowed", allowed.get(limit).sum());
+            limitStats.put("throttled", throttled.get(limit).sum());
+            stats.put(limit.getKey(), limitStats);
+        });
+        return stats;
+    }
+
+    private long acquire(String key, Policy policy) {
+        try {
+            return rateLimitStore.acquire(key, policy.intervalMillis(), policy.permits());
+        } catch (Exception e) {
+            // An unreachable shared store must not take the write paths down with it
+            storeFailures.increment();
+            log.warn("Rate limit store failed, letting {} through: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+
+    private static String normalize(String client) {
+        String normalized = client.trim().toLowerCase(Locale.ROOT);
+        return normalized.length() > MAX_CLIENT_LENGTH ? normalized.substring(0, MAX_CLIENT_LENGTH) : normalized;
+    }
+
+    private record Policy(int permits, Duration period, long intervalMillis) {
+    }
+}
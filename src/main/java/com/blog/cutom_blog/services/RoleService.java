@@ -1,19 +1,54 @@
 package com.blog.cutom_blog.services;
 
+import com.blog.cutom_blog.constants.ERole;
 import com.blog.cutom_blog.exceptions.NotFoundException;
 import com.blog.cutom_blog.models.Role;
 import com.blog.cutom_blog.repositories.RoleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+
+/**
+ * Roles are a handful of rows seeded by migrations, so they are read once into an immutable map.
+ * An unknown id triggers one reload in case a role was added since.
+ */
 @Service
 public class RoleService {
     @Autowired
     private RoleRepository repository;
 
+    private volatile Map<String, Role> rolesById;
+
     public Role findById(String id) {
-        return repository.findById(id)
-            .orElseThrow(() -> new NotFoundException("Invalid role Id", "Invalid role Id"));
+        Role role = roles().get(id);
+        if (role == null) {
+            role = reload().get(id);
+        }
+        if (role == null) {
+            throw new NotFoundException("Invalid role Id", "Invalid role Id");
+        }
+        return role;
+    }
+
+    public Optional<Role> findByName(ERole name) {
+        return roles().values().stream()
+            .filter(role -> role.getName() == name)
+            .findFirst();
+    }
+
+    private Map<String, Role> roles() {
+        Map<String, Role> roles = rolesById;
+        return roles != null ? roles : reload();
+    }
+
+    private synchronized Map<String, Role> reload() {
+        rolesById = Map.copyOf(repository.findAll().stream()
+            .collect(Collectors.toMap(Role::getId, Function.identity())));
+        return rolesById;
     }
 }
@@ -1,23 +1,35 @@
 package com.blog.cutom_blog.services;
 
 
+import com.blog.cutom_blog.events.SubscriberChangedEvent;
 import com.blog.cutom_blog.models.Subscriber;
 import com.blog.cutom_blog.repositories.SubscriberRepository;
+import com.blog.cutom_blog.repositories.projections.SubscriberEmailView;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class SubscriberService {
+    private static final int ACTIVE_EMAIL_PAGE_SIZE = 500;
 
     @Autowired
     private SubscriberRepository subscriberRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Subscriber> getAllSubscribers() {
         return subscriberRepository.findAll();
     }
 
+    @Transactional
     public Subscriber subscribe(String email) {
         // Check if subscriber exists
         if (subscriberRepository.existsByEmail(email)) {
@@ -31,7 +43,9 @@ public class SubscriberService {
 
             // Reactivate if previously unsubscribed
             existing.setActive(true);
-            return subscriberRepository.save(existing);
+            Subscriber reactivated = subscriberRepository.save(existing);
+            eventPublisher.publishEvent(new SubscriberChangedEvent(email, false, true));
+            return reactivated;
         }
 
         Subscriber subscriber = Subscriber.builder()
@@ -39,21 +53,57 @@ public class SubscriberService {
             .email(email)
             .build();
 
-        return subscriberRepository.save(subscriber);
+        Subscriber savedSubscriber = subscriberRepository.save(subscriber);
+        eventPublisher.publishEvent(new SubscriberChangedEvent(email, null, true));
+        return savedSubscriber;
     }
 
+    @Transactional
     public void unsubscribe(String email) {
         Subscriber subscriber = subscriberRepository.findByEmail(email)
             .orElseThrow(() -> new RuntimeException("Subscriber not found"));
 
+        boolean wasActive = subscriber.isActive();
         subscriber.setActive(false);
         subscriberRepository.save(subscriber);
+        eventPublisher.publishEvent(new SubscriberChangedEvent(email, wasActive, false));
     }
 
     public List<Subscriber> getActiveSubscribers() {
         return subscriberRepository.findByActive(true);
     }
 
+    /**
+     * Hands the addresses of all active subscribers to {@code consumer} in batches of at most {@code batchSize},
+     * reading them a page at a time in id order so memory use does not grow with the number of subscribers.
+     * Returns the number of addresses handed over.
+     */
+    public long forEachActiveEmailBatch(int batchSize, Consumer<List<String>> consumer) {
+        // A page holds whole batches, so only the last batch of the last page can be short
+        int pageSize = batchSize * Math.max(1, ACTIVE_EMAIL_PAGE_SIZE / batchSize);
+        long total = 0;
+        String afterId = "";
+        while (true) {
+            List<SubscriberEmailView> page = subscriberRepository.findActiveEmailsAfter(afterId, PageRequest.of(0, pageSize));
+            List<String> batch = new ArrayList<>(batchSize);
+            for (SubscriberEmailView subscriber : page) {
+                batch.add(subscriber.getEmail());
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+            total += page.size();
+            if (page.size() < pageSize) {
+                return total;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
     public Long getActiveSubscriberCount() {
         return subscriberRepository.countByActive(true);
     }
@@ -0,0 +1,55 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.commons.cache.CacheRegistry;
+import com.blog.cutom_blog.models.User;
+import com.blog.cutom_blog.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Current JWT version of each user, checked on every authenticated request.
+ * <p>
+ * Versions are cached so the check does not hit the users table; the TTL bounds how long a token revoked on
+ * another node is still accepted here.
+ */
+@Service
+public class TokenVersionService {
+    private static final int MAX_CACHED_USERS = 10_000;
+    // Cached for users that no longer exist, so their tokens are rejected without a lookup each time
+    private static final int NO_USER = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<String, Integer> versions;
+
+    public TokenVersionService(UserRepository userRepository,
+                               CacheRegistry cacheRegistry,
+                               @Value("${app.jwt.token-version-ttl:PT1M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.versions = cacheRegistry.register("tokenVersions", Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_USERS)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build());
+    }
+
+    public boolean isCurrent(String userId, int tokenVersion) {
+        int current = versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(NO_USER));
+        return current != NO_USER && current == tokenVersion;
+    }
+
+    /**
+     * Revokes every token issued to the user so far. The caller saves the user.
+     */
+    public void revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        versions.invalidate(user.getId());
+    }
+
+    public void evict(String userId) {
+        versions.invalidate(userId);
+    }
+}
@@ -1,16 +1,19 @@
 package com.blog.cutom_blog.services;
 
 
+import com.blog.cutom_blog.config.security_configuration.UserDetailsServiceImpl;
 import com.blog.cutom_blog.constants.ERole;
 import com.blog.cutom_blog.dtos.AdminSignupRequest;
+import com.blog.cutom_blog.events.UserCreatedEvent;
 import com.blog.cutom_blog.models.Registration;
 import com.blog.cutom_blog.models.Role;
 import com.blog.cutom_blog.models.User;
-import com.blog.cutom_blog.repositories.RoleRepository;
 import com.blog.cutom_blog.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -22,16 +25,23 @@ public class UserService {
     UserRepository userRepository;
 
     @Autowired
-    RoleRepository roleRepository;
+    RoleService roleService;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
 
     @Autowired
     PasswordEncoder encoder;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
     public User createUser(Registration registration, String password) {
         // Default behavior: create reader user
         return createReaderUser(registration, password);
     }
 
+    @Transactional
     public User createReaderUser(Registration registration, String password) {
         // Generate username from email (part before @) or firstName-lastName, max 50 chars
         String username = generateUsername(registration.getEmail(), registration.getFirstName(), registration.getLastName());
@@ -45,13 +55,14 @@ public class UserService {
             .build();
 
         // Assign READER role
-        Role readerRole = roleRepository.findByName(ERole.ROLE_READER)
+        Role readerRole = roleService.findByName(ERole.ROLE_READER)
             .orElseThrow(() -> new RuntimeException("Error: Reader role is not found."));
 
         user.setRoleId(readerRole.getId());
-        return userRepository.save(user);
+        return saveNewUser(user);
     }
 
+    @Transactional
     public User createAdminUserFromRegistration(Registration registration, String password) {
         // Generate username from email (part before @) or firstName-lastName, max 50 chars
         String username = generateUsername(registration.getEmail(), registration.getFirstName(), registration.getLastName());
@@ -65,11 +76,11 @@ public class UserService {
             .build();
 
         // Assign ADMIN role
-        Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
+        Role adminRole = roleService.findByName(ERole.ROLE_ADMIN)
             .orElseThrow(() -> new RuntimeException("Error: Admin role is not found."));
 
         user.setRoleId(adminRole.getId());
-        return userRepository.save(user);
+        return saveNewUser(user);
     }
 
     private String generateUsername(String email, String firstName, String lastName) {
@@ -110,6 +121,7 @@ public class UserService {
         return userRepository.existsByEmail(email);
     }
 
+    @Transactional
     public User createAdminUser(AdminSignupRequest signupRequest) {
         // Check if email already exists
         if (userRepository.existsByEmail(signupRequest.getEmail())) {
@@ -128,10 +140,17 @@ public class UserService {
             .build();
 
         // Assign ROLE_ADMIN role
-        Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
+        Role adminRole = roleService.findByName(ERole.ROLE_ADMIN)
             .orElseThrow(() -> new RuntimeException("Error: Admin role is not found."));
 
         user.setRoleId(adminRole.getId());
-        return userRepository.save(user);
+        return saveNewUser(user);
+    }
+
+    private User saveNewUser(User user) {
+        User savedUser = userRepository.save(user);
+        userDetailsService.evict(savedUser.getId());
+        eventPublisher.publishEvent(new UserCreatedEvent(savedUser.getId()));
+        return savedUser;
     }
-}
\ No newline at end of file
+}
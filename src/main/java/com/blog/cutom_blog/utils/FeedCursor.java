@@ -0,0 +1,43 @@
+package com.blog.cutom_blog.utils;
+
+import com.blog.cutom_blog.exceptions.BadRequestException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position in the published-post feed: the (publishedAt, id) of the last post a client has seen.
+ */
+@Getter
+public class FeedCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime publishedAt;
+    private final String id;
+
+    public FeedCursor(final LocalDateTime publishedAt, final String id) {
+        this.publishedAt = publishedAt;
+        this.id = id;
+    }
+
+    public String encode() {
+        String raw = publishedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(final String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new BadRequestException("Malformed feed cursor: " + cursor, "Invalid cursor");
+            }
+            return new FeedCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Malformed feed cursor: " + cursor, "Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.blog.cutom_blog.utils;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Conditional GET support for handlers that can compute their validators before building the response body.
+ */
+public class HttpValidators {
+
+    private HttpValidators() {
+    }
+
+    public static String strongEtag(String... parts) {
+        return "\"" + String.join("-", parts) + "\"";
+    }
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Applies the Cache-Control policy, evaluates If-None-Match / If-Modified-Since and sets ETag and
+     * Last-Modified on the response. When this returns true the response is already a 304 and the handler
+     * should return {@code null} without building a body.
+     */
+    public static boolean checkNotModified(ServletWebRequest request, CacheControl cacheControl,
+                                           String etag, LocalDateTime lastModified) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return request.checkNotModified(etag, toEpochMillis(lastModified));
+    }
+}
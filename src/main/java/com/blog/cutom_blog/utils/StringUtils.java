@@ -7,6 +7,11 @@ import java.util.regex.Pattern;
 
 public class StringUtils {
     private static final Random randomGenerator = new Random();
+    private static final Pattern MARKUP = Pattern.compile("<[^>]*>|&#?\\w+;");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // A tag cut off at the end of a truncated body has no closing bracket
+    private static final Pattern TAG = Pattern.compile("<[^>]*(>|$)");
+    private static final Pattern PARTIAL_ENTITY = Pattern.compile("&#?\\w*$");
 
     public StringUtils() {
     }
@@ -85,6 +90,49 @@ public class StringUtils {
         return ngrams;
     }
 
+    /**
+     * Lower-cased word tokens of a text with HTML tags and entities removed, e.g. for search indexing.
+     * Joining the result with spaces gives input suitable for {@link #ngrams(int, String)}.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (isBlank(text)) {
+            return tokens;
+        }
+
+        String plain = MARKUP.matcher(text).replaceAll(" ").toLowerCase(Locale.ROOT);
+        for (String token : NON_WORD.split(plain)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Plain-text start of an HTML fragment, at most {@code maxLength} characters and cut at a word boundary where
+     * possible. Tags are removed, entities are kept whole, so the result is still safe to render as HTML.
+     */
+    public static String excerpt(String html, int maxLength) {
+        if (isBlank(html)) {
+            return null;
+        }
+
+        String plain = TAG.matcher(html).replaceAll(" ").replaceAll("\\s+", " ").trim();
+        if (plain.length() <= maxLength) {
+            return plain.isEmpty() ? null : plain;
+        }
+
+        String cut = plain.substring(0, maxLength);
+        int lastSpace = cut.lastIndexOf(' ');
+        if (lastSpace > maxLength / 2) {
+            cut = cut.substring(0, lastSpace);
+        }
+        cut = PARTIAL_ENTITY.matcher(cut).replaceAll("").trim();
+        return cut.isEmpty() ? null : cut + "...";
+    }
+
     private static String concat(String[] words, int start, int end) {
         StringBuilder sb = new StringBuilder();
 
@@ -0,0 +1,3 @@
+-- Supports keyset pagination of the published feed: WHERE status = ? AND (published_at, id) < (?, ?)
+-- ORDER BY published_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_posts_status_published_at_id ON posts (status, published_at DESC, id DESC);
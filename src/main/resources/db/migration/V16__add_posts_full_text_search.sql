@@ -0,0 +1,11 @@
+-- Weighted full-text document for post search; maintained by Postgres on every insert/update
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english'::regconfig, coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english'::regconfig, coalesce(subtitle, '')), 'B') ||
+        setweight(to_tsvector('english'::regconfig, coalesce(meta_keywords, '')), 'B') ||
+        setweight(to_tsvector('english'::regconfig, coalesce(excerpt, '')), 'C') ||
+        setweight(to_tsvector('english'::regconfig, coalesce(content, '')), 'D')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_posts_search_vector ON posts USING GIN (search_vector);
@@ -0,0 +1,7 @@
+-- View counts, written in batches by PostViewCounter rather than on every page view
+CREATE TABLE IF NOT EXISTS post_stats (
+    post_id VARCHAR(255) PRIMARY KEY,
+    view_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP,
+    CONSTRAINT fk_post_stats_post FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
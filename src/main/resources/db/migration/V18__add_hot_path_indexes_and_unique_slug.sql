@@ -0,0 +1,40 @@
+-- The category column was only ever created by Hibernate; make sure it exists before indexing it
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS category VARCHAR(50);
+
+-- Slugs must be unique. Keep the oldest post on each slug and move the rest to slug-<id prefix>.
+UPDATE posts p
+SET slug = p.slug || '-' || LEFT(p.id, 8)
+FROM (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY slug ORDER BY created_at, id) AS rn
+    FROM posts
+    WHERE slug IS NOT NULL
+) duplicates
+WHERE p.id = duplicates.id AND duplicates.rn > 1;
+
+-- Backs findBySlug / existsBySlug
+ALTER TABLE posts ADD CONSTRAINT uk_posts_slug UNIQUE (slug);
+
+-- Admin listings by status, newest first (findSummariesByStatus / findSummariesByStatusIn sorted by created_at)
+CREATE INDEX IF NOT EXISTS idx_posts_status_created_at ON posts (status, created_at DESC);
+
+-- Published category pages and related posts, newest first
+CREATE INDEX IF NOT EXISTS idx_posts_published_category_published_at ON posts (category, published_at DESC)
+    WHERE status = 'PUBLISHED';
+
+-- findByAuthorId
+CREATE INDEX IF NOT EXISTS idx_posts_author_id ON posts (author_id);
+
+-- Comments of a post, newest first (findByPostId / countByPostId)
+CREATE INDEX IF NOT EXISTS idx_comments_post_id_created_at ON comments (post_id, created_at DESC);
+
+-- findByAuthorId on comments
+CREATE INDEX IF NOT EXISTS idx_comments_author_id ON comments (author_id);
+
+-- Active subscribers are what newsletters iterate and the dashboard counts (findByActive / countByActive)
+CREATE INDEX IF NOT EXISTS idx_subscribers_active_id ON subscribers (id) WHERE active = TRUE;
+
+-- A tag is attached to a post once; the unique index also serves lookups by post
+DELETE FROM post_tags a USING post_tags b
+WHERE a.post_id = b.post_id AND a.tag_id = b.tag_id AND a.id > b.id;
+ALTER TABLE post_tags ADD CONSTRAINT uk_post_tags_post_tag UNIQUE (post_id, tag_id);
+CREATE INDEX IF NOT EXISTS idx_post_tags_tag_id ON post_tags (tag_id);
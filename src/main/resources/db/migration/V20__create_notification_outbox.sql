@@ -0,0 +1,33 @@
+-- Subscriber notifications, written in the same transaction as the post change that triggers them.
+-- One row per post and notification type; NotificationDispatcher expands it into batches of recipients.
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id VARCHAR(255) PRIMARY KEY,
+    post_id VARCHAR(255) NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP,
+    CONSTRAINT fk_notification_outbox_post FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    CONSTRAINT uk_notification_outbox_post_type UNIQUE (post_id, type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_pending
+    ON notification_outbox (created_at) WHERE status = 'PENDING';
+
+-- One email per row. A batch is due while it is PENDING, or SENDING past its lease (the node sending it died).
+CREATE TABLE IF NOT EXISTS notification_batches (
+    id VARCHAR(255) PRIMARY KEY,
+    outbox_id VARCHAR(255) NOT NULL,
+    recipients VARCHAR(255)[] NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT now(),
+    last_error TEXT,
+    sent_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT fk_notification_batches_outbox FOREIGN KEY (outbox_id) REFERENCES notification_outbox(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_batches_due
+    ON notification_batches (next_attempt_at) WHERE status IN ('PENDING', 'SENDING');
+CREATE INDEX IF NOT EXISTS idx_notification_batches_outbox_id ON notification_batches (outbox_id);
@@ -0,0 +1,10 @@
+-- Pending one-time passwords when app.otp.store=jdbc, shared by every replica
+CREATE TABLE IF NOT EXISTS otp_codes (
+    identifier VARCHAR(255) PRIMARY KEY,
+    otp VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Lets the expiry sweep delete without scanning the table
+CREATE INDEX IF NOT EXISTS idx_otp_codes_expires_at ON otp_codes (expires_at);
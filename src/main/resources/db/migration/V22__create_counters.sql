@@ -0,0 +1,9 @@
+-- Site-wide counters, kept up to date by CounterService and recomputed from source periodically
+CREATE TABLE IF NOT EXISTS site_counters (
+    name VARCHAR(64) PRIMARY KEY,
+    value BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP
+);
+
+-- post_stats already holds one row of counters per post; comment counts join the view counts there
+ALTER TABLE post_stats ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- Rate limit buckets when app.rate-limit.store=jdbc, shared by every replica.
+-- tat is the theoretical arrival time of the next request in epoch milliseconds; a past tat is a full bucket.
+CREATE TABLE IF NOT EXISTS rate_limits (
+    bucket_key VARCHAR(320) PRIMARY KEY,
+    tat BIGINT NOT NULL
+);
+
+-- Lets the sweep of refilled buckets delete without scanning the table
+CREATE INDEX IF NOT EXISTS idx_rate_limits_tat ON rate_limits (tat);
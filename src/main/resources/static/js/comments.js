@@ -56,7 +56,9 @@ const CommentsAPI = {
 
 // Comment state
 let currentCommentPage = 0;
+let currentCommentTotal = 0;
 const commentsPerPage = 10;
+let commentStream = null;
 
 // Format date for comments
 function formatCommentDate(dateString) {
@@ -103,10 +105,12 @@ async function loadComments(postId, page = 0) {
         
         loadingIndicator.style.display = 'none';
         
+        currentCommentPage = page;
+
         // Update comment count
+        currentCommentTotal = data.totalElements || 0;
         if (commentCountElement) {
-            const count = data.totalElements || 0;
-            commentCountElement.textContent = `Comments (${count})`;
+            commentCountElement.textContent = `Comments (${currentCommentTotal})`;
         }
         
         if (!data.content || data.content.length === 0) {
@@ -121,22 +125,7 @@ async function loadComments(postId, page = 0) {
         
         // Display comments
         commentsList.style.display = 'block';
-        commentsList.innerHTML = data.content.map(comment => `
-            <div class="comment" data-comment-id="${comment.id}">
-                <div class="comment__header">
-                    <div class="comment__author">
-                        <strong>${comment.authorName || 'Anonymous'}</strong>
-                        <span class="comment__date">${formatCommentDate(comment.createdAt)}</span>
-                    </div>
-                    ${currentUserId === comment.authorId ? `
-                        <button class="btn btn--ghost btn--small delete-comment-btn" data-comment-id="${comment.id}">
-                            Delete
-                        </button>
-                    ` : ''}
-                </div>
-                <p class="comment__content">${escapeHtml(comment.content)}</p>
-            </div>
-        `).join('');
+        commentsList.innerHTML = data.content.map(comment => renderComment(comment, currentUserId)).join('');
         
         // Add delete event listeners
         document.querySelectorAll('.delete-comment-btn').forEach(btn => {
@@ -156,6 +145,93 @@ async function loadComments(postId, page = 0) {
     }
 }
 
+// Render a single comment
+function renderComment(comment, currentUserId) {
+    return `
+        <div class="comment" data-comment-id="${comment.id}">
+            <div class="comment__header">
+                <div class="comment__author">
+                    <strong>${comment.authorName || 'Anonymous'}</strong>
+                    <span class="comment__date">${formatCommentDate(comment.createdAt)}</span>
+                </div>
+                ${currentUserId === comment.authorId ? `
+                    <button class="btn btn--ghost btn--small delete-comment-btn" data-comment-id="${comment.id}">
+                        Delete
+                    </button>
+                ` : ''}
+            </div>
+            <p class="comment__content">${escapeHtml(comment.content)}</p>
+        </div>
+    `;
+}
+
+// Subscribe to live comment changes of a post; EventSource reconnects on its own when the stream drops
+function subscribeToComments(postId) {
+    if (!window.EventSource || commentStream) return;
+
+    commentStream = new EventSource(`/api/posts/${postId}/comments/stream`);
+    commentStream.addEventListener('comment', event => {
+        try {
+            applyCommentEvent(JSON.parse(event.data));
+        } catch (e) {
+            console.error('Error applying live comment:', e);
+        }
+    });
+}
+
+// Apply a pushed change to the comments on screen without fetching them again
+function applyCommentEvent(change) {
+    const commentsList = document.getElementById('comments-list');
+    if (!commentsList) return;
+
+    const existing = commentsList.querySelector(`.comment[data-comment-id="${change.commentId}"]`);
+
+    if (change.type === 'UPDATED') {
+        if (existing && change.comment) {
+            existing.querySelector('.comment__content').textContent = change.comment.content;
+        }
+        return;
+    }
+
+    if (change.type === 'DELETED') {
+        // Only comments on screen are counted down, so a reload that already dropped one is not counted twice
+        if (!existing) return;
+        existing.remove();
+        setCommentCount(currentCommentTotal - 1);
+        if (!commentsList.querySelector('.comment')) {
+            loadComments(window.currentPostId, Math.max(currentCommentPage - 1, 0));
+        }
+        return;
+    }
+
+    // Our own comments are already shown by the reload after posting them
+    if (change.type !== 'CREATED' || existing || !change.comment) return;
+
+    setCommentCount(currentCommentTotal + 1);
+    // Newest comments come first, so only the first page shows new ones
+    if (currentCommentPage !== 0) return;
+
+    commentsList.insertAdjacentHTML('afterbegin', renderComment(change.comment, getUserIdFromToken()));
+    commentsList.style.display = 'block';
+    document.getElementById('no-comments-message').style.display = 'none';
+    const deleteButton = commentsList.querySelector(`.delete-comment-btn[data-comment-id="${change.commentId}"]`);
+    if (deleteButton) {
+        deleteButton.addEventListener('click', handleDeleteComment);
+    }
+    const comments = commentsList.querySelectorAll('.comment');
+    if (comments.length > commentsPerPage) {
+        comments[comments.length - 1].remove();
+    }
+}
+
+function setCommentCount(count) {
+    currentCommentTotal = Math.max(count, 0);
+    const commentCountElement = document.getElementById('comment-count');
+    if (commentCountElement) {
+        commentCountElement.textContent = `Comments (${currentCommentTotal})`;
+    }
+}
+
 // Render comment pagination
 function renderCommentPagination(data) {
     const paginationContainer = document.getElementById('comments-pagination');
@@ -337,6 +413,7 @@ document.addEventListener('DOMContentLoaded', () => {
                 // Load comments
                 console.log('[Comments] Loading comments for post:', window.currentPostId);
                 loadComments(window.currentPostId);
+                subscribeToComments(window.currentPostId);
 
                 // Add form submit listener
                 console.log('[Comments] Attaching submit event listener to form');
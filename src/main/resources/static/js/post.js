@@ -10,6 +10,15 @@ let currentPostId = null;
 
 // Fetch and display post
 async function loadPost() {
+    // Published posts arrive pre-rendered; only hand the post id to the comments
+    const renderedArticle = document.querySelector('article[data-post-id]');
+    if (renderedArticle) {
+        currentPostId = renderedArticle.dataset.postId;
+        window.currentPostId = currentPostId;
+        recordView(currentPostId);
+        return;
+    }
+
     try {
         const response = await fetch(`/api/posts/slug/${slug}`);
 
@@ -29,6 +38,9 @@ async function loadPost() {
 
         const post = await response.json();
         currentPostId = post.id;
+        if (post.status === 'PUBLISHED') {
+            recordView(post.id);
+        }
         window.currentPostId = post.id; // Make postId available to comments.js
         displayPost(post);
 
@@ -53,6 +65,16 @@ async function loadPost() {
     }
 }
 
+// Count the view without holding up the page; sendBeacon survives navigating away
+function recordView(postId) {
+    const url = `/api/posts/${postId}/views`;
+    if (navigator.sendBeacon) {
+        navigator.sendBeacon(url);
+    } else {
+        fetch(url, { method: 'POST', keepalive: true }).catch(() => {});
+    }
+}
+
 function displayPost(post) {
     // Update page title
     document.title = `${post.title} - CryptoBlog`;
@@ -101,7 +123,10 @@ function displayPost(post) {
 
         // Add featured image before content if it exists
         if (post.featuredImage) {
-            bodyContent += `<img src="${post.featuredImage}" alt="${post.title}" class="article-featured-image">`;
+            const srcset = post.featuredImageSrcset
+                ? ` srcset="${post.featuredImageSrcset}" sizes="(max-width: 960px) 100vw, 960px"`
+                : '';
+            bodyContent += `<img src="${post.featuredImage}"${srcset} alt="${post.title}" class="article-featured-image">`;
         }
 
         bodyContent += post.content;
@@ -182,7 +207,7 @@ function displayRelatedPosts(posts) {
                     <span class="post-card__title"><a href="/post?slug=${post.slug}">${post.title}</a></span>
                 </div>
                 <p class="post-card__excerpt">
-                    ${post.excerpt || post.content.substring(0, 100) + '...'}
+                    ${post.excerpt || ''}
                 </p>
                 <div class="post-card__meta">
                     <div class="post-card__author">
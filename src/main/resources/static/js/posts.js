@@ -361,7 +361,7 @@ async function loadHomepagePosts(page = 0) {
                         <span class="post-card__title"><a href="/post?slug=${post.slug}">${post.title}</a></span>
                     </div>
                     <p class="post-card__excerpt">
-                        ${post.excerpt || post.content.substring(0, 150) + '...'}
+                        ${post.excerpt || ''}
                     </p>
                     <div class="post-card__meta">
                         <div class="post-card__author">
@@ -487,7 +487,7 @@ async function displaySearchResults(keyword, page = 0) {
                         <span class="post-card__title"><a href="/post?slug=${post.slug}">${post.title}</a></span>
                     </div>
                     <p class="post-card__excerpt">
-                        ${post.excerpt || post.content.substring(0, 150) + '...'}
+                        ${post.highlight || post.excerpt || ''}
                     </p>
                     <div class="post-card__meta">
                         <div class="post-card__author">
@@ -618,7 +618,7 @@ async function filterByCategory(category) {
                         <span class="post-card__title"><a href="/post?slug=${post.slug}">${post.title}</a></span>
                     </div>
                     <p class="post-card__excerpt">
-                        ${post.excerpt || post.content.substring(0, 150) + '...'}
+                        ${post.excerpt || ''}
                     </p>
                     <div class="post-card__meta">
                         <div class="post-card__author">
@@ -677,8 +677,20 @@ function clearCategoryFilter() {
 }
 
 function initPosts() {
-    // Load posts on homepage
-    if (window.location.pathname.includes('index.html') || window.location.pathname === '/') {
+    const postsContainer = document.querySelector('.grid--posts');
+
+    if (postsContainer && postsContainer.dataset.serverRendered) {
+        // First page came pre-rendered from the server; only the pagination controls are left to build
+        if (postsContainer.dataset.category) {
+            currentCategory = postsContainer.dataset.category;
+        } else {
+            const number = Number(postsContainer.dataset.page);
+            const totalPages = Number(postsContainer.dataset.totalPages);
+            currentPage = number;
+            renderPagination({ totalPages, number, first: number === 0, last: number >= totalPages - 1 });
+        }
+    } else if (window.location.pathname.includes('index.html') || window.location.pathname === '/') {
+        // Load posts on homepage
         loadHomepagePosts();
     }
 
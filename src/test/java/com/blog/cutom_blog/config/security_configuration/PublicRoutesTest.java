@@ -0,0 +1,99 @@
+package com.blog.cutom_blog.config.security_configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every route of the security rules and JWT filter skip list the table replaced, plus the routes added since,
+ * checked against both decisions the table makes.
+ */
+class PublicRoutesTest {
+
+    @ParameterizedTest(name = "{0} {1} permitted={2} skipped={3}")
+    @CsvSource({
+        // Registration, auth, subscriptions and password reset: any method
+        "POST,   /v1/registration,                                                      true,  true",
+        "POST,   /v1/registration/verify,                                               true,  true",
+        "POST,   /api/auth/signin,                                                      true,  true",
+        "GET,    /api/auth/me,                                                          true,  true",
+        "POST,   /api/subscribers/subscribe,                                            true,  true",
+        "DELETE, /api/subscribers/unsubscribe,                                          true,  true",
+        "POST,   /api/password-reset/request,                                           true,  true",
+        // Public post reads
+        "GET,    /api/posts,                                                            true,  true",
+        "GET,    /api/posts/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f,                       true,  true",
+        "GET,    /api/posts/slug/hello-world,                                           true,  true",
+        "GET,    /api/posts/search,                                                     true,  true",
+        "POST,   /api/posts/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f/views,                 true,  true",
+        // Other GETs of one segment are permitted, but keep their token for @PreAuthorize
+        "GET,    /api/posts/drafts,                                                     true,  false",
+        "GET,    /api/posts/status,                                                     true,  false",
+        // Post writes and deeper admin reads
+        "POST,   /api/posts,                                                            false, false",
+        "PUT,    /api/posts/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f,                       false, false",
+        "DELETE, /api/posts/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f,                       false, false",
+        "PATCH,  /api/posts/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f/status,                false, false",
+        "POST,   /api/posts/search,                                                     false, false",
+        "GET,    /api/posts/author/admin,                                               false, false",
+        // Comments: reading is permitted with an optional token, the live stream needs none
+        "GET,    /api/posts/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f/comments,              true,  false",
+        "GET,    /api/posts/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f/comments/thread,       true,  false",
+        "GET,    /api/posts/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f/comments/stream,       true,  true",
+        "POST,   /api/posts/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f/comments,              false, false",
+        "PUT,    /api/comments/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f,                    false, false",
+        "DELETE, /api/comments/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f,                    false, false",
+        // Categories and tags are read without a token but stay behind the authenticated rules
+        "GET,    /api/categories,                                                       false, true",
+        "GET,    /api/tags/popular,                                                     false, true",
+        "POST,   /api/categories,                                                       false, false",
+        "DELETE, /api/tags/5f0c7d1e-2b1a-4c3d-9e8f-0a1b2c3d4e5f,                        false, false",
+        // Authenticated and admin APIs
+        "GET,    /api/dashboard/stats,                                                  false, false",
+        "POST,   /api/upload/image,                                                     false, false",
+        "GET,    /api/admin/users,                                                      false, false",
+        // Static resources; uploads are permitted but still carry a token
+        "GET,    /css/main.css,                                                         true,  true",
+        "GET,    /js/posts.js,                                                          true,  true",
+        "GET,    /assets/images/logo.png,                                               true,  true",
+        "GET,    /static/favicon.ico,                                                   true,  true",
+        "GET,    /uploads/2024/photo.jpg,                                               true,  false",
+        // Public pages
+        "GET,    /,                                                                     true,  true",
+        "GET,    /login,                                                                true,  true",
+        "GET,    /register,                                                             true,  true",
+        "GET,    /about,                                                                true,  true",
+        "GET,    /post,                                                                 true,  true",
+        "GET,    /privacy,                                                              true,  true",
+        "GET,    /terms,                                                                true,  true",
+        "GET,    /category/technology,                                                  true,  true",
+        // Pages that check the session in the browser
+        "GET,    /admin-signup,                                                         true,  false",
+        "GET,    /dashboard,                                                            true,  false",
+        "GET,    /create-post,                                                          true,  false",
+        "GET,    /preview-post,                                                         true,  false",
+        "GET,    /error,                                                                true,  false",
+        // Prefixes of public routes are not public themselves
+        "GET,    /api/authors,                                                          false, false",
+        "GET,    /cssx/main.css,                                                        false, false",
+        "GET,    /login/extra,                                                          false, false"
+    })
+    void decidesEveryRoute(String method, String path, boolean permitted, boolean skipped) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+
+        assertThat(PublicRoutes.permitAllMatcher().matches(request)).isEqualTo(permitted);
+        assertThat(PublicRoutes.skipsAuthentication(request)).isEqualTo(skipped);
+    }
+
+    @Test
+    void matchesPathsBelowTheContextPath() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/blog/api/posts/search");
+        request.setContextPath("/blog");
+
+        assertThat(PublicRoutes.permitAllMatcher().matches(request)).isTrue();
+        assertThat(PublicRoutes.skipsAuthentication(request)).isTrue();
+    }
+}
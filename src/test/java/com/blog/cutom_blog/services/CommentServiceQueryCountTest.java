@@ -0,0 +1,52 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.dtos.CommentResponse;
+import com.blog.cutom_blog.models.Comment;
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.models.User;
+import com.blog.cutom_blog.repositories.CommentRepository;
+import com.blog.cutom_blog.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommentServiceQueryCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Test
+    void listingCommentsTakesTheSameStatementsWhateverTheNumberOfAuthors() {
+        long few = statementsToList(3);
+        long many = statementsToList(25);
+
+        assertThat(many).isEqualTo(few);
+        // Comments and their author names in one query; a short page needs no separate count
+        assertThat(few).isEqualTo(1);
+    }
+
+    private long statementsToList(int authors) {
+        deleteContent();
+        Post post = savePublishedPost(saveUser(), "Commented");
+        for (int i = 0; i < authors; i++) {
+            User author = saveUser();
+            commentRepository.save(Comment.builder()
+                .content("Comment " + i)
+                .authorId(author.getId())
+                .postId(post.getId())
+                .build());
+        }
+
+        return countStatements(() -> {
+            Page<CommentResponse> page = commentService.getCommentsByPostId(post.getId(), PageRequest.of(0, 50));
+            assertThat(page.getContent()).hasSize(authors)
+                .allSatisfy(comment -> assertThat(comment.getAuthorName()).startsWith("user-"));
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.dtos.PostSummaryResponse;
+import com.blog.cutom_blog.models.User;
+import com.blog.cutom_blog.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostServiceQueryCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Test
+    void listingPublishedPostsTakesTheSameStatementsWhateverTheNumberOfAuthors() {
+        long few = statementsToList(3);
+        long many = statementsToList(25);
+
+        assertThat(many).isEqualTo(few);
+        // The page itself, one lookup for every author on it and one for their comment counts
+        assertThat(few).isEqualTo(3);
+    }
+
+    private long statementsToList(int posts) {
+        deleteContent();
+        for (int i = 0; i < posts; i++) {
+            User author = saveUser();
+            savePublishedPost(author, "Post " + i);
+        }
+
+        // Fresh authors every round, so none of them can be answered from the author cache
+        return countStatements(() -> {
+            Page<PostSummaryResponse> page = postService.toPostSummaries(postService.getAllPublishedPosts(0, 50));
+            assertThat(page.getContent()).hasSize(posts)
+                .allSatisfy(post -> assertThat(post.getAuthor()).isNotNull());
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.dtos.PostRequest;
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.models.User;
+import com.blog.cutom_blog.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSlugTest extends PostgresIntegrationTest {
+    private static final int WRITERS = 4;
+    private static final int POSTS = 5_000;
+    private static final int COMMENTS_PER_POST = 4;
+    private static final int SUBSCRIBERS = 20_000;
+
+    @Autowired
+    private PostService postService;
+
+    @Test
+    void slugLookupUsesTheUniqueSlugIndex() {
+        seedContent();
+
+        // findBySlug
+        assertThat(explain("SELECT * FROM posts p WHERE p.slug = ?", "seeded-" + POSTS / 2))
+            .contains("uk_posts_slug")
+            .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void publishedFeedUsesTheFeedIndex() {
+        seedContent();
+
+        // The first page of findSummaryFeed, the published posts newest first
+        assertThat(explain("SELECT p.id, p.title, p.slug FROM posts p WHERE p.status = 'PUBLISHED' " +
+            "AND p.published_at IS NOT NULL ORDER BY p.published_at DESC, p.id DESC LIMIT 10"))
+            .contains("idx_posts_status_published_at_id")
+            .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void commentsOfAPostUseThePostIndex() {
+        seedContent();
+
+        // A page of findByPostId / findViewsByPostId, newest first
+        assertThat(explain("SELECT * FROM comments c WHERE c.post_id = ? ORDER BY c.created_at DESC LIMIT 20",
+            "seeded-" + POSTS / 2))
+            .contains("idx_comments_post_id_created_at")
+            .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void activeSubscriberCountUsesThePartialIndex() {
+        seedContent();
+
+        // countByActive(true)
+        assertThat(explain("SELECT COUNT(s.id) FROM subscribers s WHERE s.active = TRUE"))
+            .contains("idx_subscribers_active_id")
+            .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void concurrentPostsWithTheSameTitleGetDistinctSlugs() throws Exception {
+        deleteContent();
+        User author = saveUser();
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Post>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            writers.add(executor.submit(() -> {
+                PostRequest request = new PostRequest();
+                request.setTitle("Same title");
+                request.setContent("<p>Written at the same time</p>");
+                start.await();
+                return postService.createPost(request, author.getUsername());
+            }));
+        }
+        start.countDown();
+
+        List<String> slugs = new ArrayList<>();
+        for (Future<Post> writer : writers) {
+            slugs.add(writer.get(30, TimeUnit.SECONDS).getSlug());
+        }
+        executor.shutdown();
+
+        assertThat(slugs).containsExactlyInAnyOrder("same-title", "same-title-2", "same-title-3", "same-title-4");
+    }
+
+    /**
+     * Enough rows that reading a table whole costs more than using its index, so the planner picks the index on its
+     * own: a quarter of the posts are drafts, every post has a few comments and one subscriber in ten is active.
+     */
+    private void seedContent() {
+        deleteContent();
+        User author = saveUser();
+        jdbcTemplate.update("INSERT INTO posts (id, created_at, title, content, status, author_id, published_at, slug) " +
+            "SELECT 'seeded-' || n, CAST(now() AS TIMESTAMP) - n * INTERVAL '1 minute', 'Seeded ' || n, '<p>Seeded</p>', " +
+            "CASE WHEN n % 4 = 0 THEN 'DRAFT' ELSE 'PUBLISHED' END, ?, " +
+            "CASE WHEN n % 4 = 0 THEN NULL ELSE CAST(now() AS TIMESTAMP) - n * INTERVAL '1 minute' END, 'seeded-' || n " +
+            "FROM generate_series(1, ?) n", author.getId(), POSTS);
+        jdbcTemplate.update("INSERT INTO comments (id, created_at, content, author_id, post_id) " +
+            "SELECT 'seeded-' || n, CAST(now() AS TIMESTAMP) - n * INTERVAL '1 second', 'Comment ' || n, ?, " +
+            "'seeded-' || (n % ? + 1) FROM generate_series(1, ?) n", author.getId(), POSTS, POSTS * COMMENTS_PER_POST);
+        jdbcTemplate.update("INSERT INTO subscribers (id, created_at, email, active) " +
+            "SELECT 'seeded-' || n, CAST(now() AS TIMESTAMP), 'reader-' || n || '@example.com', n % 10 = 0 " +
+            "FROM generate_series(1, ?) n", SUBSCRIBERS);
+        // Fresh statistics, and a visibility map so the planner can consider index-only scans
+        jdbcTemplate.execute("VACUUM ANALYZE posts, comments, subscribers");
+    }
+
+    private String explain(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+}
@@ -0,0 +1,69 @@
+package com.blog.cutom_blog.services;
+
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.models.User;
+import com.blog.cutom_blog.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostViewCounterTest extends PostgresIntegrationTest {
+    private static final int THREADS = 8;
+    private static final int VIEWS_PER_THREAD = 10_000;
+
+    @Autowired
+    private PostViewCounter postViewCounter;
+
+    @Test
+    void flushPersistsEveryViewRecordedFromConcurrentThreads() throws Exception {
+        deleteContent();
+        User author = saveUser();
+        Post first = savePublishedPost(author, "Counted first");
+        Post second = savePublishedPost(author, "Counted second");
+        // Saved without post events, so the counter learns about them the way it does at startup
+        postViewCounter.loadPublishedPosts();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> recorders = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            recorders.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                    postViewCounter.recordView(i % 2 == 0 ? first.getId() : second.getId());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        // Flushing while views are still being recorded must neither lose nor double count any of them
+        while (recorders.stream().anyMatch(recorder -> !recorder.isDone())) {
+            postViewCounter.flush();
+        }
+        for (Future<?> recorder : recorders) {
+            recorder.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        postViewCounter.flush();
+
+        long expected = (long) THREADS * VIEWS_PER_THREAD / 2;
+        assertThat(persistedViews(first)).isEqualTo(expected);
+        assertThat(persistedViews(second)).isEqualTo(expected);
+        assertThat(postViewCounter.getViewCount(first.getId())).isEqualTo(expected);
+        assertThat(postViewCounter.getViewCount(second.getId())).isEqualTo(expected);
+    }
+
+    private long persistedViews(Post post) {
+        return jdbcTemplate.queryForObject("SELECT view_count FROM post_stats WHERE post_id = ?", Long.class,
+            post.getId());
+    }
+}
@@ -0,0 +1,84 @@
+package com.blog.cutom_blog.support;
+
+import com.blog.cutom_blog.enums.ECategory;
+import com.blog.cutom_blog.models.Post;
+import com.blog.cutom_blog.models.User;
+import com.blog.cutom_blog.repositories.PostRepository;
+import com.blog.cutom_blog.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Base of tests that need the real schema: the application runs against a throwaway Postgres, migrated by Flyway
+ * like production. The container is shared by every subclass so the Spring context is only started once.
+ * <p>
+ * The DataSource is wrapped by {@link StatementCounter}, so tests can pin how many statements a code path sends,
+ * through Hibernate and {@link JdbcTemplate} alike.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Import(StatementCounter.class)
+public abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected PostRepository postRepository;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    /**
+     * Statements prepared on the test's thread while running the action.
+     */
+    protected long countStatements(Runnable action) {
+        return statementCounter.count(action);
+    }
+
+    /**
+     * Empties the content tables, along with everything referencing them.
+     */
+    protected void deleteContent() {
+        jdbcTemplate.execute("TRUNCATE comments, posts, users, subscribers CASCADE");
+    }
+
+    protected User saveUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+            .username("user-" + suffix)
+            .email("user-" + suffix + "@example.com")
+            .password("not-a-real-hash")
+            .firstName("First " + suffix)
+            .lastName("Last " + suffix)
+            .build());
+    }
+
+    protected Post savePublishedPost(User author, String title) {
+        return postRepository.save(Post.builder()
+            .title(title)
+            .content("<p>Body of " + title + "</p>")
+            .status(Post.PostStatus.PUBLISHED)
+            .authorId(author.getId())
+            .category(ECategory.values()[0])
+            .publishedAt(LocalDateTime.now())
+            .slug(title.toLowerCase().replaceAll("[^a-z0-9]+", "-") + "-" + UUID.randomUUID())
+            .build());
+    }
+}
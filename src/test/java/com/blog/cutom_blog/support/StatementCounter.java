@@ -0,0 +1,76 @@
+package com.blog.cutom_blog.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Wraps the application's DataSource so tests can count the statements a code path sends to the database, whether
+ * Hibernate or a JdbcTemplate prepares them. Only statements prepared on the counting thread are included, so the
+ * scheduled jobs running meanwhile do not change the count.
+ */
+public class StatementCounter implements BeanPostProcessor {
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    private final ThreadLocal<long[]> counts = new ThreadLocal<>();
+
+    /**
+     * Statements prepared on this thread while running the action.
+     */
+    public long count(Runnable action) {
+        long[] count = new long[1];
+        counts.set(count);
+        try {
+            action.run();
+        } finally {
+            counts.remove();
+        }
+        return count[0];
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                long[] count = counts.get();
+                if (count != null && STATEMENT_FACTORIES.contains(method.getName())) {
+                    count[0]++;
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    private class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+    }
+}